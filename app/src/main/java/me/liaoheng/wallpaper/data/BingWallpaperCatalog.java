@@ -0,0 +1,252 @@
+package me.liaoheng.wallpaper.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.L;
+
+import org.joda.time.LocalDate;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import me.liaoheng.wallpaper.data.provider.TasksContract.WallpaperEntry;
+import me.liaoheng.wallpaper.model.Wallpaper;
+
+/**
+ * 本地壁纸目录，按市场与enddate保存，只从网络补齐缺少的日期
+ *
+ * @author liaoheng
+ * @date 2026-10-18 10:12
+ */
+public class BingWallpaperCatalog {
+    private static final String TAG = BingWallpaperCatalog.class.getSimpleName();
+    /**
+     * HPImageArchive max idx
+     */
+    public static final int MAX_INDEX = 7;
+    /**
+     * HPImageArchive max n
+     */
+    public static final int MAX_COUNT = 8;
+    /**
+     * Oldest day reachable through the api
+     */
+    public static final int MAX_DAYS = MAX_INDEX + MAX_COUNT;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormat.forPattern("yyyyMMdd");
+
+    private static final String[] PROJECTION = new String[] { WallpaperEntry.COLUMN_DATE, WallpaperEntry.COLUMN_URL,
+            WallpaperEntry.COLUMN_BASE_URL, WallpaperEntry.COLUMN_TITLE, WallpaperEntry.COLUMN_WEB_URL,
+            WallpaperEntry.COLUMN_DESC, WallpaperEntry.COLUMN_COPYRIGHT_INFO };
+
+    /**
+     * enddate of today's wallpaper (idx 0). The day of the market may be ahead of the device, the newest stored
+     * enddate wins when it is later than the device's tomorrow.
+     */
+    @NonNull
+    public static String getTopDate(Context context, String mkt) {
+        return getTopDate(LocalDate.now(), queryNewestDate(context, mkt));
+    }
+
+    @NonNull
+    static String getTopDate(LocalDate today, @Nullable String newest) {
+        String top = DATE_FORMAT.print(today.plusDays(1));
+        return newest != null && newest.compareTo(top) > 0 ? newest : top;
+    }
+
+    /**
+     * enddate of every wallpaper in the window, newest first
+     *
+     * @param topDate enddate of idx 0, {@link #getTopDate(Context, String)}
+     */
+    @NonNull
+    public static List<String> getDates(String topDate, int index, int count) {
+        List<String> dates = new ArrayList<>(count);
+        LocalDate top = DATE_FORMAT.parseLocalDate(topDate);
+        for (int i = index; i < index + count && i < MAX_DAYS; i++) {
+            dates.add(DATE_FORMAT.print(top.minusDays(i)));
+        }
+        return dates;
+    }
+
+    /**
+     * Plan the idx/n requests that fetch only the dates the catalog does not have.
+     *
+     * @param dates  window dates, newest first
+     * @param have   dates already in the catalog
+     * @param index  idx of the first date
+     * @return {idx, n} pairs
+     */
+    @NonNull
+    public static List<int[]> getMissingWindows(List<String> dates, Set<String> have, int index) {
+        List<int[]> windows = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= dates.size(); i++) {
+            boolean missing = i < dates.size() && !have.contains(dates.get(i));
+            if (missing) {
+                if (start == -1) {
+                    start = i;
+                }
+                continue;
+            }
+            if (start == -1) {
+                continue;
+            }
+            int from = index + start;
+            int to = index + i;
+            while (from < to) {
+                int idx = Math.min(from, MAX_INDEX);
+                int n = Math.min(MAX_COUNT, to - idx);
+                if (idx + n <= from) {
+                    break;
+                }
+                windows.add(new int[] { idx, n });
+                from = idx + n;
+            }
+            start = -1;
+        }
+        return windows;
+    }
+
+    @NonNull
+    public static Set<String> queryDates(Context context, String mkt, List<String> dates) {
+        Set<String> have = new HashSet<>();
+        if (dates.isEmpty()) {
+            return have;
+        }
+        try (Cursor cursor = context.getContentResolver()
+                .query(WallpaperEntry.CONTENT_URI, new String[] { WallpaperEntry.COLUMN_DATE },
+                        WallpaperEntry.COLUMN_MKT + "=? and " + WallpaperEntry.COLUMN_DATE + "<=? and "
+                                + WallpaperEntry.COLUMN_DATE + ">=?",
+                        new String[] { mkt, dates.get(0), dates.get(dates.size() - 1) }, null)) {
+            while (cursor != null && cursor.moveToNext()) {
+                have.add(cursor.getString(0));
+            }
+        } catch (Exception e) {
+            L.alog().w(TAG, e, "query catalog dates");
+        }
+        return have;
+    }
+
+    @Nullable
+    static String queryNewestDate(Context context, String mkt) {
+        try (Cursor cursor = context.getContentResolver()
+                .query(WallpaperEntry.buildLimitUri(1), new String[] { WallpaperEntry.COLUMN_DATE },
+                        WallpaperEntry.COLUMN_MKT + "=?", new String[] { mkt },
+                        WallpaperEntry.COLUMN_DATE + " desc")) {
+            if (cursor != null && cursor.moveToNext()) {
+                return cursor.getString(0);
+            }
+        } catch (Exception e) {
+            L.alog().w(TAG, e, "query catalog newest date");
+        }
+        return null;
+    }
+
+    /**
+     * @param topDate newest enddate to return, null for the newest stored
+     */
+    @NonNull
+    public static List<Wallpaper> query(Context context, String mkt, @Nullable String topDate, int count) {
+        List<Wallpaper> wallpapers = new ArrayList<>();
+        String selection = WallpaperEntry.COLUMN_MKT + "=?";
+        String[] args = new String[] { mkt };
+        if (topDate != null) {
+            selection += " and " + WallpaperEntry.COLUMN_DATE + "<=?";
+            args = new String[] { mkt, topDate };
+        }
+        try (Cursor cursor = context.getContentResolver()
+                .query(WallpaperEntry.buildLimitUri(count), PROJECTION, selection, args,
+                        WallpaperEntry.COLUMN_DATE + " desc")) {
+            while (cursor != null && cursor.moveToNext()) {
+                wallpapers.add(new Wallpaper(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getString(4), cursor.getString(5), cursor.getString(6)));
+            }
+        } catch (Exception e) {
+            L.alog().w(TAG, e, "query catalog");
+        }
+        return wallpapers;
+    }
+
+    /**
+     * The catalog rows plus the fetched ones, so a catalog that can not be read or written still returns what
+     * the network gave, newest first.
+     *
+     * @param topDate newest enddate to return, null for all
+     */
+    @NonNull
+    static List<Wallpaper> merge(List<Wallpaper> stored, List<Wallpaper> fetched, @Nullable String topDate,
+            int count) {
+        TreeMap<String, Wallpaper> merged = new TreeMap<>(Collections.reverseOrder());
+        List<Wallpaper> all = new ArrayList<>(fetched);
+        all.addAll(stored);
+        for (Wallpaper wallpaper : all) {
+            if (wallpaper.getDateTime() != null) {
+                merged.put(wallpaper.getDateTime(), wallpaper);
+            }
+        }
+        List<Wallpaper> wallpapers = new ArrayList<>();
+        for (Wallpaper wallpaper : merged.values()) {
+            if (wallpapers.size() >= count) {
+                break;
+            }
+            if (topDate == null || wallpaper.getDateTime().compareTo(topDate) <= 0) {
+                wallpapers.add(wallpaper);
+            }
+        }
+        return wallpapers;
+    }
+
+    @Nullable
+    public static Wallpaper get(Context context, String mkt, String date) {
+        List<Wallpaper> wallpapers = query(context, mkt, date, 1);
+        if (wallpapers.isEmpty() || !date.equals(wallpapers.get(0).getDateTime())) {
+            return null;
+        }
+        return wallpapers.get(0);
+    }
+
+    public static void save(Context context, String mkt, List<Wallpaper> wallpapers) {
+        if (wallpapers == null || wallpapers.isEmpty()) {
+            return;
+        }
+        ContentValues[] values = new ContentValues[wallpapers.size()];
+        for (int i = 0; i < wallpapers.size(); i++) {
+            Wallpaper wallpaper = wallpapers.get(i);
+            ContentValues value = new ContentValues();
+            value.put(WallpaperEntry.COLUMN_MKT, mkt);
+            value.put(WallpaperEntry.COLUMN_DATE, wallpaper.getDateTime());
+            value.put(WallpaperEntry.COLUMN_URL, wallpaper.getUrl());
+            value.put(WallpaperEntry.COLUMN_BASE_URL, wallpaper.getBaseUrl());
+            value.put(WallpaperEntry.COLUMN_TITLE, wallpaper.getTitle());
+            value.put(WallpaperEntry.COLUMN_WEB_URL, wallpaper.getWebUrl());
+            value.put(WallpaperEntry.COLUMN_DESC, wallpaper.getDesc());
+            value.put(WallpaperEntry.COLUMN_COPYRIGHT_INFO, wallpaper.getCopyrightInfo());
+            values[i] = value;
+        }
+        try {
+            context.getContentResolver().bulkInsert(WallpaperEntry.CONTENT_URI, values);
+        } catch (Exception e) {
+            L.alog().w(TAG, e, "save catalog");
+        }
+    }
+
+    public static void clear(Context context) {
+        try {
+            context.getContentResolver().delete(WallpaperEntry.CONTENT_URI, null, null);
+        } catch (Exception e) {
+            L.alog().w(TAG, e, "clear catalog");
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package me.liaoheng.wallpaper.data;
 
 import android.content.Context;
+import android.os.SystemClock;
 
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.L;
 import com.github.liaoheng.common.util.ValidateUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import me.liaoheng.wallpaper.model.BingWallpaper;
@@ -15,6 +25,7 @@ import me.liaoheng.wallpaper.model.BingWallpaperImage;
 import me.liaoheng.wallpaper.model.Wallpaper;
 import me.liaoheng.wallpaper.util.BingWallpaperUtils;
 import me.liaoheng.wallpaper.util.Constants;
+import me.liaoheng.wallpaper.util.HttpStatusException;
 import me.liaoheng.wallpaper.util.NetUtils;
 import retrofit2.Response;
 
@@ -23,25 +34,118 @@ import retrofit2.Response;
  * @version 2016-09-20 11:27
  */
 public class BingWallpaperNetworkClient {
+    private static final String TAG = BingWallpaperNetworkClient.class.getSimpleName();
+    /**
+     * Widgets, live wallpaper, worker and main screen may request the same archive at the same time
+     */
+    private static final SingleFlight<List<Wallpaper>> FLIGHT = new SingleFlight<>(TimeUnit.SECONDS.toMillis(30));
+    /**
+     * Markets requested at the same time by the world feed
+     */
+    private static final int MARKET_CONCURRENCY = 4;
+    private static final long REVALIDATE_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+    private static volatile long mLastRevalidateTime;
+
+    public static SingleFlight<List<Wallpaper>> getSingleFlight() {
+        return FLIGHT;
+    }
 
     public static Observable<Wallpaper> getBingWallpaper(Context context) {
         return getBingWallpaper(context, 0, 1).map(bingWallpaperImages -> bingWallpaperImages.get(0));
     }
 
+    /**
+     * Read from the local catalog first, only request the days the catalog does not have.
+     */
     public static Observable<List<Wallpaper>> getBingWallpaper(Context context, int index,
             int count) {
         String locale = BingWallpaperUtils.getAutoLocale(context);
-        String url = BingWallpaperUtils.getUrl(context, index, count, locale);
-        return getBingWallpaper(url, locale).flatMap(bingWallpaper -> {
-            if (ValidateUtils.isItemEmpty(bingWallpaper.getImages())) {
-                return Observable.error(new IOException("bing wallpaper is not data"));
+        return Observable.fromCallable(() -> getBingWallpaperList(context, locale, index, count))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * World feed, query the markets concurrently, merge the same image of different markets, newest first.
+     *
+     * @param locales markets, lang-COUNTRY, earlier markets win when the same image is in several markets
+     */
+    public static Observable<List<Wallpaper>> getBingWallpaper(Context context, List<String> locales, int index,
+            int count) {
+        return Observable.fromIterable(locales)
+                .concatMapEager(locale -> Observable.fromCallable(
+                                () -> getBingWallpaperList(context, locale, index, count))
+                        .subscribeOn(Schedulers.io())
+                        .onErrorReturn(e -> {
+                            L.alog().w(TAG, e, "market: %s", locale);
+                            return new ArrayList<>();
+                        }), MARKET_CONCURRENCY, 1)
+                .toList()
+                .map(BingWallpaperNetworkClient::mergeMarkets)
+                .toObservable();
+    }
+
+    static List<Wallpaper> mergeMarkets(List<List<Wallpaper>> markets) throws IOException {
+        Map<String, Wallpaper> merged = new LinkedHashMap<>();
+        for (List<Wallpaper> wallpapers : markets) {
+            for (Wallpaper wallpaper : wallpapers) {
+                String key = getImageName(wallpaper.getBaseUrl());
+                if (!merged.containsKey(key)) {
+                    merged.put(key, wallpaper);
+                }
             }
-            List<Wallpaper> wallpapers = new ArrayList<>();
-            for (BingWallpaperImage image : bingWallpaper.getImages()) {
-                wallpapers.add(image.to(bingWallpaper.getTooltips()));
+        }
+        if (merged.isEmpty()) {
+            throw new IOException("bing wallpaper is not data");
+        }
+        List<Wallpaper> feed = new ArrayList<>(merged.values());
+        Collections.sort(feed, (o1, o2) -> o2.getDateTime().compareTo(o1.getDateTime()));
+        return feed;
+    }
+
+    /**
+     * /th?id=OHR.Name_ZH-CN1234567890 -> OHR.Name, the same image has the same name in every market
+     */
+    static String getImageName(String urlbase) {
+        if (urlbase == null) {
+            return "";
+        }
+        int start = urlbase.indexOf("id=");
+        start = start < 0 ? 0 : start + 3;
+        int end = urlbase.lastIndexOf('_');
+        if (end <= start) {
+            return urlbase.substring(start);
+        }
+        return urlbase.substring(start, end);
+    }
+
+    public static List<Wallpaper> getBingWallpaperList(Context context, String locale, int index, int count)
+            throws IOException {
+        List<String> dates = BingWallpaperCatalog.getDates(BingWallpaperCatalog.getTopDate(context, locale), index,
+                count);
+        if (dates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<String> have = BingWallpaperCatalog.queryDates(context, locale, dates);
+        List<Wallpaper> fetched = new ArrayList<>();
+        IOException error = null;
+        for (int[] window : BingWallpaperCatalog.getMissingWindows(dates, have, index)) {
+            String url = BingWallpaperUtils.getUrl(context, window[0], window[1], locale);
+            try {
+                List<Wallpaper> wallpapers = fetchWallpapers(url, locale, "public, max-age=" + 60 * 60 * 24, false);
+                fetched.addAll(wallpapers);
+                BingWallpaperCatalog.save(context, locale, wallpapers);
+            } catch (IOException e) {
+                error = e;
             }
-            return Observable.just(wallpapers);
-        });
+        }
+        // idx 0 is not bounded, bing may already be on a day after the device's tomorrow
+        String topDate = index == 0 ? null : dates.get(0);
+        List<Wallpaper> wallpapers = BingWallpaperCatalog.merge(BingWallpaperCatalog.query(context, locale, topDate, dates.size()),
+                fetched, topDate, dates.size());
+        if (wallpapers.isEmpty()) {
+            throw error == null ? new IOException("bing wallpaper is not data") : error;
+        }
+        return wallpapers;
     }
 
     public static Observable<BingWallpaper> getBingWallpaper(String url, String locale) {
@@ -53,34 +157,102 @@ public class BingWallpaperNetworkClient {
         return getBingWallpaperSingleCall(context, cache);
     }
 
+    /**
+     * @param cache true: serve today's wallpaper from the catalog and revalidate in the background, false: block on a
+     *              conditional request
+     */
     public static Wallpaper getBingWallpaperSingleCall(Context context, boolean cache) throws IOException {
         String locale = BingWallpaperUtils.getAutoLocale(context);
-        String url = BingWallpaperUtils.getUrl(context);
-        String c = "public, ";
-        if (cache) {
-            c += "max-age=" + 60 * 60 * 12;//12 hour
-        } else {
-            c += "no-cache";
+        String topDate = BingWallpaperCatalog.getTopDate(context, locale);
+        Wallpaper cached = BingWallpaperCatalog.get(context, locale, topDate);
+        if (cache && cached != null) {
+            BingWallpaperRevalidator.hit();
+            revalidateInBackground(context.getApplicationContext(), locale);
+            return cached;
         }
-        return getBingWallpaperSingleCall(url, locale, c);
+        List<Wallpaper> wallpapers = revalidate(context, locale, cached != null, !cache);
+        L.alog().d(TAG, "revalidate: %s", BingWallpaperRevalidator.getStats());
+        if (wallpapers != null) {
+            return wallpapers.get(0);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        wallpapers = BingWallpaperCatalog.query(context, locale, null, 1);
+        if (wallpapers.isEmpty()) {
+            throw new IOException("bing wallpaper is not data");
+        }
+        return wallpapers.get(0);
+    }
+
+    private static void revalidateInBackground(Context context, String locale) {
+        long now = SystemClock.elapsedRealtime();
+        if (mLastRevalidateTime != 0 && now - mLastRevalidateTime < REVALIDATE_INTERVAL) {
+            return;
+        }
+        mLastRevalidateTime = now;
+        Completable.fromAction(() -> revalidate(context, locale, true, false))
+                .subscribeOn(Schedulers.io())
+                .subscribe(() -> {
+                }, e -> L.alog().w(TAG, e, "background revalidate"));
+    }
+
+    /**
+     * @return null when the archive did not change
+     */
+    @Nullable
+    private static List<Wallpaper> revalidate(Context context, String locale, boolean conditional, boolean force)
+            throws IOException {
+        String url = BingWallpaperUtils.getUrl(context);
+        return FLIGHT.execute("revalidate|" + url + "|" + getMkt(locale), force, () -> {
+            List<Wallpaper> wallpapers = BingWallpaperRevalidator.revalidate(context, url, locale, conditional);
+            BingWallpaperCatalog.save(context, locale, wallpapers);
+            return wallpapers;
+        });
     }
 
     public static Wallpaper getBingWallpaperSingleCall(String url, String locale, String cache)
             throws IOException {
+        return fetchWallpapers(url, locale, cache, false).get(0);
+    }
+
+    /**
+     * Concurrent callers with the same url and mkt share one request.
+     *
+     * @param force skip the result that completed within ttl
+     */
+    private static List<Wallpaper> fetchWallpapers(String url, String locale, String cache, boolean force)
+            throws IOException {
+        String mkt = getMkt(locale);
+        List<Wallpaper> wallpapers = FLIGHT.execute(url + "|" + mkt, force,
+                () -> toWallpapers(getBingWallpaperCall(url, locale, cache)));
+        L.alog().d(TAG, "fetch wallpapers: %s", FLIGHT);
+        return new ArrayList<>(wallpapers);
+    }
+
+    private static BingWallpaper getBingWallpaperCall(String url, String locale, String cache)
+            throws IOException {
         Response<BingWallpaper> execute = NetUtils.get().getBingWallpaperNetworkService()
                 .getBingWallpaperCall(url, getMkt(locale), cache).execute();
         if (execute.isSuccessful()) {
-            BingWallpaper bingWallpaper = execute.body();
-            if (bingWallpaper == null || ValidateUtils.isItemEmpty(bingWallpaper.getImages())) {
-                throw new IOException("bing wallpaper is not data");
-            }
-            return bingWallpaper.getImages().get(0).to(bingWallpaper.getTooltips());
+            return execute.body();
         } else {
-            throw new IOException("bing server response failure");
+            throw new HttpStatusException(execute.code());
+        }
+    }
+
+    static List<Wallpaper> toWallpapers(BingWallpaper bingWallpaper) throws IOException {
+        if (bingWallpaper == null || ValidateUtils.isItemEmpty(bingWallpaper.getImages())) {
+            throw new IOException("bing wallpaper is not data");
+        }
+        List<Wallpaper> wallpapers = new ArrayList<>();
+        for (BingWallpaperImage image : bingWallpaper.getImages()) {
+            wallpapers.add(image.to(bingWallpaper.getTooltips()));
         }
+        return wallpapers;
     }
 
-    private static String getMkt(String locale) {
+    static String getMkt(String locale) {
         return String.format(Constants.MKT_HEADER, locale);
     }
 }
@@ -2,6 +2,7 @@ package me.liaoheng.wallpaper.data;
 
 import io.reactivex.rxjava3.core.Observable;
 import me.liaoheng.wallpaper.model.BingWallpaper;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Header;
@@ -29,4 +30,15 @@ public interface BingWallpaperNetworkService {
     @GET
     Call<BingWallpaper> getBingWallpaperCall(@Url String url, @Header("Cookie") String mkt,
             @Header("Cache-Control") String cache);
+
+    /**
+     * Raw body for conditional requests, null validators are not sent
+     */
+    @Headers({
+            "User-Agent:" + USER_AGENT,
+    })
+    @GET
+    Call<ResponseBody> getBingWallpaperResponse(@Url String url, @Header("Cookie") String mkt,
+            @Header("Cache-Control") String cache, @Header("If-None-Match") String etag,
+            @Header("If-Modified-Since") String lastModified);
 }
@@ -0,0 +1,77 @@
+package me.liaoheng.wallpaper.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import me.liaoheng.wallpaper.model.Wallpaper;
+import me.liaoheng.wallpaper.util.BingWallpaperUtils;
+
+/**
+ * 历史壁纸分页，按api允许的idx/n拆分窗口并发请求，按urlbase去重合并
+ *
+ * @author liaoheng
+ * @date 2026-10-18 12:05
+ */
+public class BingWallpaperPager {
+
+    /**
+     * Windows that cover the days [0, days), idx is clamped to {@link BingWallpaperCatalog#MAX_INDEX} so the
+     * last window may overlap the previous one.
+     *
+     * @return {idx, n} pairs
+     */
+    @NonNull
+    public static List<int[]> planWindows(int days) {
+        List<int[]> windows = new ArrayList<>();
+        days = Math.min(days, BingWallpaperCatalog.MAX_DAYS);
+        int from = 0;
+        while (from < days) {
+            int idx = Math.min(from, BingWallpaperCatalog.MAX_INDEX);
+            int n = Math.min(BingWallpaperCatalog.MAX_COUNT, days - idx);
+            windows.add(new int[] { idx, n });
+            from = idx + n;
+        }
+        return windows;
+    }
+
+    /**
+     * Whole archive, every window is requested at the same time, emits the merged list each time a window
+     * arrives, newest first.
+     */
+    public static Observable<List<Wallpaper>> getBingWallpaperList(Context context) {
+        return getBingWallpaperList(context, BingWallpaperCatalog.MAX_DAYS);
+    }
+
+    public static Observable<List<Wallpaper>> getBingWallpaperList(Context context, int days) {
+        String locale = BingWallpaperUtils.getAutoLocale(context);
+        return Observable.fromIterable(planWindows(days))
+                .flatMap(window -> Observable.fromCallable(
+                        () -> BingWallpaperNetworkClient.getBingWallpaperList(context, locale, window[0],
+                                window[1])).subscribeOn(Schedulers.io()), true)
+                .<Map<String, Wallpaper>>scan(new LinkedHashMap<>(), (merged, wallpapers) -> {
+                    Map<String, Wallpaper> map = new LinkedHashMap<>(merged);
+                    for (Wallpaper wallpaper : wallpapers) {
+                        map.put(wallpaper.getBaseUrl(), wallpaper);
+                    }
+                    return map;
+                })
+                .skip(1)
+                .map(BingWallpaperPager::sort);
+    }
+
+    @NonNull
+    static List<Wallpaper> sort(Map<String, Wallpaper> merged) {
+        List<Wallpaper> list = new ArrayList<>(merged.values());
+        Collections.sort(list, (o1, o2) -> o2.getDateTime().compareTo(o1.getDateTime()));
+        return list;
+    }
+}
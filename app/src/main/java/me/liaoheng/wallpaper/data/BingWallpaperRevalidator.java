@@ -0,0 +1,146 @@
+package me.liaoheng.wallpaper.data;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.L;
+import com.google.common.hash.Hashing;
+
+import net.grandcentrix.tray.core.TrayItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.liaoheng.wallpaper.model.BingWallpaper;
+import me.liaoheng.wallpaper.model.Wallpaper;
+import me.liaoheng.wallpaper.util.HttpStatusException;
+import me.liaoheng.wallpaper.util.ISettingTrayPreferences;
+import me.liaoheng.wallpaper.util.NetUtils;
+import me.liaoheng.wallpaper.util.SettingTrayPreferences;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * 每日壁纸元数据条件请求，按市场保存ETag/Last-Modified/body hash，未变化时不重新解析
+ *
+ * @author liaoheng
+ * @date 2026-10-18 12:40
+ */
+public class BingWallpaperRevalidator {
+    private static final String TAG = BingWallpaperRevalidator.class.getSimpleName();
+
+    private static final String PREF_ETAG = "validator_etag_";
+    private static final String PREF_LAST_MODIFIED = "validator_last_modified_";
+    private static final String PREF_BODY_HASH = "validator_body_hash_";
+
+    private static final AtomicLong HIT = new AtomicLong();
+    private static final AtomicLong REVALIDATE = new AtomicLong();
+    private static final AtomicLong MISS = new AtomicLong();
+    private static final AtomicLong NOT_MODIFIED = new AtomicLong();
+
+    /**
+     * Served from the catalog without waiting for the network
+     */
+    public static void hit() {
+        HIT.incrementAndGet();
+    }
+
+    /**
+     * Request with the stored validators.
+     *
+     * @param conditional send the stored validators, false when nothing usable is cached
+     * @return null when the archive did not change (304 or identical body), otherwise the new wallpapers
+     */
+    @Nullable
+    static List<Wallpaper> revalidate(Context context, String url, String locale, boolean conditional)
+            throws IOException {
+        ISettingTrayPreferences preferences = SettingTrayPreferences.get(context);
+        String etag = null;
+        String lastModified = null;
+        String bodyHash = null;
+        if (conditional) {
+            REVALIDATE.incrementAndGet();
+            etag = emptyToNull(preferences.getString(PREF_ETAG + locale, null));
+            lastModified = emptyToNull(preferences.getString(PREF_LAST_MODIFIED + locale, null));
+            bodyHash = preferences.getString(PREF_BODY_HASH + locale, null);
+        } else {
+            MISS.incrementAndGet();
+        }
+        Response<ResponseBody> response = NetUtils.get().getBingWallpaperNetworkService()
+                .getBingWallpaperResponse(url, BingWallpaperNetworkClient.getMkt(locale), "no-cache", etag,
+                        lastModified).execute();
+        if (response.code() == 304) {
+            NOT_MODIFIED.incrementAndGet();
+            L.alog().d(TAG, "not modified : %s", locale);
+            return null;
+        }
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            throw new HttpStatusException(response.code());
+        }
+        byte[] bytes = body.bytes();
+        String hash = Hashing.sha256().hashBytes(bytes).toString();
+        if (hash.equals(bodyHash)) {
+            NOT_MODIFIED.incrementAndGet();
+            L.alog().d(TAG, "body unchanged : %s", locale);
+            return null;
+        }
+        BingWallpaper bingWallpaper;
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            bingWallpaper = NetUtils.get().getGson().fromJson(reader, BingWallpaper.class);
+        } catch (RuntimeException e) {
+            throw new IOException("bing wallpaper parse failure", e);
+        }
+        List<Wallpaper> wallpapers = BingWallpaperNetworkClient.toWallpapers(bingWallpaper);
+        preferences.put(PREF_ETAG + locale, nullToEmpty(response.headers().get("ETag")));
+        preferences.put(PREF_LAST_MODIFIED + locale, nullToEmpty(response.headers().get("Last-Modified")));
+        preferences.put(PREF_BODY_HASH + locale, hash);
+        return wallpapers;
+    }
+
+    public static void clear(Context context) {
+        ISettingTrayPreferences preferences = SettingTrayPreferences.get(context);
+        for (TrayItem item : preferences.getAll()) {
+            String key = item.key();
+            if (key.startsWith(PREF_ETAG) || key.startsWith(PREF_LAST_MODIFIED) || key.startsWith(PREF_BODY_HASH)) {
+                preferences.remove(key);
+            }
+        }
+    }
+
+    private static String emptyToNull(String s) {
+        return TextUtils.isEmpty(s) ? null : s;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    public static long getHits() {
+        return HIT.get();
+    }
+
+    public static long getRevalidates() {
+        return REVALIDATE.get();
+    }
+
+    public static long getMisses() {
+        return MISS.get();
+    }
+
+    public static long getNotModified() {
+        return NOT_MODIFIED.get();
+    }
+
+    public static String getStats() {
+        return "hit=" + getHits() + ", revalidate=" + getRevalidates() + ", miss=" + getMisses()
+                + ", notModified=" + getNotModified();
+    }
+}
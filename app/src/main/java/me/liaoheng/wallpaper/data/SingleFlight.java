@@ -0,0 +1,136 @@
+package me.liaoheng.wallpaper.data;
+
+import android.os.SystemClock;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合并相同key的并发请求，同一时间只执行一次，结果在ttl内复用
+ *
+ * @author liaoheng
+ * @date 2026-10-18 11:40
+ */
+public class SingleFlight<V> {
+
+    private class Call {
+        final FutureTask<V> task;
+        volatile long completedAt;
+
+        Call(Callable<V> callable) {
+            task = new FutureTask<>(() -> {
+                try {
+                    return callable.call();
+                } finally {
+                    completedAt = SystemClock.elapsedRealtime();
+                }
+            });
+        }
+
+        boolean isFresh(long now) {
+            return task.isDone() && now - completedAt < mTtl;
+        }
+    }
+
+    private final long mTtl;
+    private final Map<String, Call> mCalls = new HashMap<>();
+    private final AtomicLong mExecuted = new AtomicLong();
+    private final AtomicLong mCoalesced = new AtomicLong();
+    private final AtomicLong mHits = new AtomicLong();
+
+    /**
+     * @param ttl result reuse time, millisecond
+     */
+    public SingleFlight(long ttl) {
+        mTtl = ttl;
+    }
+
+    /**
+     * @param force do not reuse a completed result, still join the in-flight call
+     */
+    public V execute(String key, boolean force, Callable<V> callable) throws IOException {
+        Call call;
+        boolean owner = false;
+        synchronized (mCalls) {
+            call = mCalls.get(key);
+            if (call != null && !call.task.isDone()) {
+                mCoalesced.incrementAndGet();
+            } else if (call != null && !force && call.isFresh(SystemClock.elapsedRealtime())) {
+                mHits.incrementAndGet();
+            } else {
+                call = new Call(callable);
+                mCalls.put(key, call);
+                owner = true;
+                mExecuted.incrementAndGet();
+            }
+        }
+        if (owner) {
+            call.task.run();
+        }
+        try {
+            return call.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(key);
+        } catch (ExecutionException e) {
+            if (owner) {
+                remove(key, call);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void remove(String key, Call call) {
+        synchronized (mCalls) {
+            if (mCalls.get(key) == call) {
+                mCalls.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (mCalls) {
+            mCalls.clear();
+        }
+    }
+
+    /**
+     * Calls that really went to the network
+     */
+    public long getExecuted() {
+        return mExecuted.get();
+    }
+
+    /**
+     * Calls that joined an in-flight call
+     */
+    public long getCoalesced() {
+        return mCoalesced.get();
+    }
+
+    /**
+     * Calls served by a completed result within ttl
+     */
+    public long getHits() {
+        return mHits.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlight{executed=" + getExecuted() + ", coalesced=" + getCoalesced() + ", hits="
+                + getHits() + '}';
+    }
+}
@@ -4,7 +4,6 @@ import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
-import me.liaoheng.wallpaper.BuildConfig;
 import me.liaoheng.wallpaper.data.provider.TasksContract;
 import me.liaoheng.wallpaper.util.BingWallpaperUtils;
 import me.liaoheng.wallpaper.util.Constants;
@@ -14,10 +13,15 @@ import me.liaoheng.wallpaper.util.Constants;
  * @version 2018-01-16 15:44
  */
 public class DBHelper extends SQLiteOpenHelper {
+    /**
+     * Schema version, increment it with every schema change. It was the versionCode (10953 and below) before,
+     * so it continues from there, an install of the same versionCode still gets the wallpaper table.
+     */
+    private static final int DB_VERSION = 10954;
 
     public DBHelper(Context context) {
         super(context, Constants.PROJECT_NAME + "_" + BingWallpaperUtils.getUserId(context) + "_" + ".db", null,
-                BuildConfig.VERSION_CODE);
+                DB_VERSION);
     }
 
     private static final String DB_CREATE = "create table " + TasksContract.TaskEntry.TABLE_NAME +
@@ -25,11 +29,28 @@ public class DBHelper extends SQLiteOpenHelper {
             TasksContract.TaskEntry.COLUMN_TAG + " text not null, " +
             TasksContract.TaskEntry.COLUMN_DATE + " integer not null);";
 
+    private static final String DB_CREATE_WALLPAPER = "create table if not exists "
+            + TasksContract.WallpaperEntry.TABLE_NAME +
+            " (" + TasksContract.WallpaperEntry._ID + " integer primary key autoincrement, " +
+            TasksContract.WallpaperEntry.COLUMN_MKT + " text not null, " +
+            TasksContract.WallpaperEntry.COLUMN_DATE + " text not null, " +
+            TasksContract.WallpaperEntry.COLUMN_URL + " text, " +
+            TasksContract.WallpaperEntry.COLUMN_BASE_URL + " text not null, " +
+            TasksContract.WallpaperEntry.COLUMN_TITLE + " text, " +
+            TasksContract.WallpaperEntry.COLUMN_WEB_URL + " text, " +
+            TasksContract.WallpaperEntry.COLUMN_DESC + " text, " +
+            TasksContract.WallpaperEntry.COLUMN_COPYRIGHT_INFO + " text, " +
+            "unique (" + TasksContract.WallpaperEntry.COLUMN_MKT + ", " + TasksContract.WallpaperEntry.COLUMN_DATE
+            + ") on conflict replace);";
+
     @Override
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(DB_CREATE);
+        db.execSQL(DB_CREATE_WALLPAPER);
     }
 
     @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {}
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL(DB_CREATE_WALLPAPER);
+    }
 }
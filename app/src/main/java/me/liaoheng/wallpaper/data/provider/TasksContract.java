@@ -12,6 +12,8 @@ public class TasksContract {
     public static final String CONTENT_AUTHORITY = "me.liaoheng.wallpaper";
     private static final Uri BASE_CONTENT_URI = Uri.parse("content://" + CONTENT_AUTHORITY);
     public static final String PATH = "tasks";
+    public static final String PATH_WALLPAPER = "wallpapers";
+    public static final String QUERY_LIMIT = "limit";
 
     public static final class TaskEntry implements BaseColumns {
 
@@ -26,4 +28,31 @@ public class TasksContract {
         public static final String COLUMN_TAG = "tag";
         public static final String COLUMN_DATE = "date";
     }
+
+    /**
+     * Local wallpaper catalog, one row per market and bing enddate
+     */
+    public static final class WallpaperEntry implements BaseColumns {
+
+        public static final Uri CONTENT_URI = BASE_CONTENT_URI.buildUpon().appendPath(PATH_WALLPAPER).build();
+
+        public static Uri buildUri(long id) {
+            return ContentUris.withAppendedId(CONTENT_URI, id);
+        }
+
+        public static Uri buildLimitUri(int limit) {
+            return CONTENT_URI.buildUpon().appendQueryParameter(QUERY_LIMIT, String.valueOf(limit)).build();
+        }
+
+        public static final String TABLE_NAME = "wallpapers";
+
+        public static final String COLUMN_MKT = "mkt";
+        public static final String COLUMN_DATE = "date";
+        public static final String COLUMN_URL = "url";
+        public static final String COLUMN_BASE_URL = "base_url";
+        public static final String COLUMN_TITLE = "title";
+        public static final String COLUMN_WEB_URL = "web_url";
+        public static final String COLUMN_DESC = "description";
+        public static final String COLUMN_COPYRIGHT_INFO = "copyright_info";
+    }
 }
@@ -29,24 +29,35 @@ public class TasksProvider extends ContentProvider {
     }
 
     private final int OK = 111;
+    private final int WALLPAPER = 112;
 
     UriMatcher buildUriMatcher() {
         final UriMatcher matcher = new UriMatcher(UriMatcher.NO_MATCH);
         final String authority = TasksContract.CONTENT_AUTHORITY;
 
         matcher.addURI(authority, TasksContract.PATH, OK);
+        matcher.addURI(authority, TasksContract.PATH_WALLPAPER, WALLPAPER);
 
         return matcher;
     }
 
+    private String getTableName(Uri uri) {
+        int match = mUriMatcher.match(uri);
+        if (match == OK) {
+            return TasksContract.TaskEntry.TABLE_NAME;
+        } else if (match == WALLPAPER) {
+            return TasksContract.WallpaperEntry.TABLE_NAME;
+        }
+        throw new IllegalArgumentException("Error Uri: " + uri);
+    }
+
     @Nullable
     @Override
     public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection, @Nullable String[] selectionArgs, @Nullable String sortOrder) {
-        if (mUriMatcher.match(uri) != OK) {
-            throw new IllegalArgumentException("Error Uri: " + uri);
-        }
+        String table = getTableName(uri);
         SQLiteDatabase db = mDbHelper.getReadableDatabase();
-        return db.query(TasksContract.TaskEntry.TABLE_NAME, projection, selection, selectionArgs, sortOrder, null, null);
+        return db.query(table, projection, selection, selectionArgs, null, null, sortOrder,
+                uri.getQueryParameter(TasksContract.QUERY_LIMIT));
     }
 
     @Nullable
@@ -58,35 +69,49 @@ public class TasksProvider extends ContentProvider {
     @Nullable
     @Override
     public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
-        if (mUriMatcher.match(uri) != OK) {
-            throw new IllegalArgumentException("Error Uri: " + uri);
-        }
+        String table = getTableName(uri);
         SQLiteDatabase db = mDbHelper.getWritableDatabase();
         long _id;
-        _id = db.insert(TasksContract.TaskEntry.TABLE_NAME, null, values);
+        _id = db.insertWithOnConflict(table, null, values, SQLiteDatabase.CONFLICT_REPLACE);
         Uri returnUri;
         if (_id > 0)
-            returnUri = TasksContract.TaskEntry.buildUri(_id);
+            returnUri = mUriMatcher.match(uri) == WALLPAPER ? TasksContract.WallpaperEntry.buildUri(_id)
+                    : TasksContract.TaskEntry.buildUri(_id);
         else
             throw new SQLException("Failed to insert row into " + uri);
         return returnUri;
     }
 
     @Override
-    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
-        if (mUriMatcher.match(uri) != OK) {
-            throw new IllegalArgumentException("Error Uri: " + uri);
+    public int bulkInsert(@NonNull Uri uri, @NonNull ContentValues[] values) {
+        String table = getTableName(uri);
+        SQLiteDatabase db = mDbHelper.getWritableDatabase();
+        int count = 0;
+        db.beginTransaction();
+        try {
+            for (ContentValues value : values) {
+                if (db.insertWithOnConflict(table, null, value, SQLiteDatabase.CONFLICT_REPLACE) > 0) {
+                    count++;
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
+        return count;
+    }
+
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
+        String table = getTableName(uri);
         SQLiteDatabase db = mDbHelper.getWritableDatabase();
-        return db.delete(TasksContract.TaskEntry.TABLE_NAME, selection, selectionArgs);
+        return db.delete(table, selection, selectionArgs);
     }
 
     @Override
     public int update(@NonNull Uri uri, @Nullable ContentValues values, @Nullable String selection, @Nullable String[] selectionArgs) {
-        if (mUriMatcher.match(uri) != OK) {
-            throw new IllegalArgumentException("Error Uri: " + uri);
-        }
+        String table = getTableName(uri);
         SQLiteDatabase db = mDbHelper.getWritableDatabase();
-        return db.update(TasksContract.TaskEntry.TABLE_NAME, values, selection, selectionArgs);
+        return db.update(table, values, selection, selectionArgs);
     }
 }
@@ -21,7 +21,23 @@ public class BingWallpaperImage {
     private String copyrightonly;
     private String desc;
 
+    public BingWallpaperImage() {
+    }
+
+    BingWallpaperImage(String enddate, String url, String urlbase, String copyright, String copyrightlink,
+            boolean wp, String hsh, String desc) {
+        this.enddate = enddate;
+        this.url = url;
+        this.urlbase = urlbase;
+        this.copyright = copyright;
+        this.copyrightlink = copyrightlink;
+        this.wp = wp;
+        this.hsh = hsh;
+        this.desc = desc;
+    }
+
     public Wallpaper to(BingWallpaper.ToolTips toolTips) {
-        return new Wallpaper(enddate, url, urlbase, copyright, copyrightlink, desc, toolTips == null ? "" : wp ? toolTips.getWalls() : toolTips.getWalle());
+        return new Wallpaper(enddate, url, urlbase, copyright, copyrightlink, desc,
+                toolTips == null ? "" : wp ? toolTips.getWalls() : toolTips.getWalle());
     }
 }
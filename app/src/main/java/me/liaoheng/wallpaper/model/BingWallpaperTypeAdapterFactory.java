@@ -0,0 +1,187 @@
+package me.liaoheng.wallpaper.model;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HPImageArchive流式解析，只读取需要的字段，其余字段(drk/top/bot...)直接跳过
+ *
+ * @author liaoheng
+ * @date 2026-10-18 13:10
+ */
+public class BingWallpaperTypeAdapterFactory implements TypeAdapterFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() == BingWallpaper.class) {
+            return (TypeAdapter<T>) new BingWallpaperAdapter(gson.getDelegateAdapter(this, TypeToken.get(
+                    BingWallpaper.class)), new BingWallpaperImageAdapter(gson.getDelegateAdapter(this,
+                    TypeToken.get(BingWallpaperImage.class))));
+        }
+        if (type.getRawType() == BingWallpaperImage.class) {
+            return (TypeAdapter<T>) new BingWallpaperImageAdapter(gson.getDelegateAdapter(this,
+                    TypeToken.get(BingWallpaperImage.class)));
+        }
+        return null;
+    }
+
+    /**
+     * Only reading is streamed, writing uses the reflective adapter
+     */
+    static class BingWallpaperAdapter extends TypeAdapter<BingWallpaper> {
+        private final TypeAdapter<BingWallpaper> mDelegate;
+        private final BingWallpaperImageAdapter mImageAdapter;
+
+        BingWallpaperAdapter(TypeAdapter<BingWallpaper> delegate, BingWallpaperImageAdapter imageAdapter) {
+            mDelegate = delegate;
+            mImageAdapter = imageAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, BingWallpaper value) throws IOException {
+            mDelegate.write(out, value);
+        }
+
+        @Override
+        public BingWallpaper read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            BingWallpaper wallpaper = new BingWallpaper();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "images":
+                        List<BingWallpaperImage> images = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            BingWallpaperImage image = mImageAdapter.read(in);
+                            if (image != null) {
+                                images.add(image);
+                            }
+                        }
+                        in.endArray();
+                        wallpaper.setImages(images);
+                        break;
+                    case "tooltips":
+                        wallpaper.setTooltips(readToolTips(in, wallpaper));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return wallpaper;
+        }
+
+        private BingWallpaper.ToolTips readToolTips(JsonReader in, BingWallpaper wallpaper) throws IOException {
+            BingWallpaper.ToolTips toolTips = wallpaper.new ToolTips();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "walle":
+                        toolTips.setWalle(in.nextString());
+                        break;
+                    case "walls":
+                        toolTips.setWalls(in.nextString());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return toolTips;
+        }
+    }
+
+    static class BingWallpaperImageAdapter extends TypeAdapter<BingWallpaperImage> {
+        private final TypeAdapter<BingWallpaperImage> mDelegate;
+
+        BingWallpaperImageAdapter(TypeAdapter<BingWallpaperImage> delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, BingWallpaperImage value) throws IOException {
+            mDelegate.write(out, value);
+        }
+
+        @Override
+        public BingWallpaperImage read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String enddate = null;
+            String url = null;
+            String urlbase = null;
+            String copyright = null;
+            String copyrightlink = null;
+            boolean wp = false;
+            String hsh = null;
+            String desc = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "enddate":
+                        enddate = in.nextString();
+                        break;
+                    case "url":
+                        url = in.nextString();
+                        break;
+                    case "urlbase":
+                        urlbase = in.nextString();
+                        break;
+                    case "copyright":
+                        copyright = in.nextString();
+                        break;
+                    case "copyrightlink":
+                        copyrightlink = in.nextString();
+                        break;
+                    case "wp":
+                        wp = in.nextBoolean();
+                        break;
+                    case "hsh":
+                        hsh = in.nextString();
+                        break;
+                    case "desc":
+                        desc = in.nextString();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new BingWallpaperImage(enddate, url, urlbase, copyright, copyrightlink, wp, hsh, desc);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package me.liaoheng.wallpaper.service;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.github.liaoheng.common.util.L;
+
+import me.liaoheng.wallpaper.data.BingWallpaperNetworkClient;
+import me.liaoheng.wallpaper.model.Config;
+import me.liaoheng.wallpaper.model.Wallpaper;
+import me.liaoheng.wallpaper.util.AppliedWallpaper;
+import me.liaoheng.wallpaper.util.DiskCacheQuota;
+import me.liaoheng.wallpaper.util.LogDebugFileUtils;
+import me.liaoheng.wallpaper.util.Settings;
+import me.liaoheng.wallpaper.util.WallpaperRenditionPlanner;
+
+/**
+ * 空闲时预先下载并处理下一张壁纸，定时设置时只需本地设置
+ *
+ * @author liaoheng
+ * @date 2026-10-18 18:10
+ */
+public class BingWallpaperPrefetchWorker extends Worker {
+    private final String TAG = BingWallpaperPrefetchWorker.class.getSimpleName();
+
+    public BingWallpaperPrefetchWorker(@NonNull Context appContext, @NonNull WorkerParameters workerParams) {
+        super(appContext, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        if (Settings.getJobType(context) == Settings.NONE) {
+            return Result.success();
+        }
+        try {
+            Wallpaper image = BingWallpaperNetworkClient.getWallpaper(context, false);
+            image.setResolutionImageUrl(context);
+            Config config = new Config.Builder().loadConfig(context)
+                    .setWallpaperMode(Settings.getAutoModeValue(context))
+                    .setBackground(true)
+                    .build();
+            if (AppliedWallpaper.isApplied(context, image, config)) {
+                L.alog().d(TAG, "already set : %s", image.getImageUrl());
+                return Result.success();
+            }
+            WallpaperRenditionPlanner.prefetch(context, image, config);
+            DiskCacheQuota.trim(context);
+            if (Settings.isEnableLogProvider(context)) {
+                LogDebugFileUtils.get().i(TAG, "Prefetch wallpaper : %s", image.getImageUrl());
+            }
+        } catch (Exception e) {
+            L.alog().w(TAG, e, "prefetch failure");
+            if (Settings.isEnableLogProvider(context)) {
+                LogDebugFileUtils.get().e(TAG, e, "Prefetch failure");
+            }
+        }
+        return Result.success();
+    }
+}
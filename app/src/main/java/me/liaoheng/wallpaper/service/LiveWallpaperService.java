@@ -45,15 +45,18 @@ import me.liaoheng.wallpaper.data.BingWallpaperNetworkClient;
 import me.liaoheng.wallpaper.model.Config;
 import me.liaoheng.wallpaper.model.Wallpaper;
 import me.liaoheng.wallpaper.model.WallpaperImage;
+import me.liaoheng.wallpaper.util.AppliedWallpaper;
 import me.liaoheng.wallpaper.util.BingWallpaperUtils;
 import me.liaoheng.wallpaper.util.BitmapCache;
+import me.liaoheng.wallpaper.util.BitmapDecoder;
 import me.liaoheng.wallpaper.util.Constants;
 import me.liaoheng.wallpaper.util.DelayedHandler;
 import me.liaoheng.wallpaper.util.HandlerHelper;
 import me.liaoheng.wallpaper.util.LogDebugFileUtils;
 import me.liaoheng.wallpaper.util.MiuiHelper;
-import me.liaoheng.wallpaper.util.RetryWithDelay;
+import me.liaoheng.wallpaper.util.RetryPolicy;
 import me.liaoheng.wallpaper.util.Settings;
+import me.liaoheng.wallpaper.util.WallpaperFileStore;
 import me.liaoheng.wallpaper.util.WallpaperUtils;
 
 /**
@@ -159,7 +162,25 @@ public class LiveWallpaperService extends WallpaperService {
         if (config == null) {
             return;
         }
-        updateBingWallpaper(Observable.just(false).compose(load(config)), config);
+        mLoadWallpaperDisposable.add(Utils.addSubscribe(
+                Observable.just(false).subscribeOn(Schedulers.io()).compose(load(config))
+                        .retryWhen(RetryPolicy.create(2, 5, TimeUnit.SECONDS)),
+                new Callback.EmptyCallback<DownloadBitmap>() {
+
+                    @Override
+                    public void onSuccess(DownloadBitmap d) {
+                        if (AppliedWallpaper.isApplied(getApplicationContext(), d.image, config)) {
+                            mServiceHelper.skip(config, d.image);
+                            return;
+                        }
+                        updateBingWallpaper(Observable.just(d), config);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        mServiceHelper.failure(config, e);
+                    }
+                }));
     }
 
     public void setBingWallpaper(Wallpaper image, Config config) {
@@ -177,7 +198,7 @@ public class LiveWallpaperService extends WallpaperService {
 
     public void updateBingWallpaper(Observable<DownloadBitmap> observable, Config config) {
         mLoadWallpaperDisposable.add(Utils.addSubscribe(
-                observable.subscribeOn(Schedulers.io()).retryWhen(new RetryWithDelay(3, 5)),
+                observable.subscribeOn(Schedulers.io()).retryWhen(RetryPolicy.create(2, 5, TimeUnit.SECONDS)),
                 new Callback.EmptyCallback<DownloadBitmap>() {
 
                     @Override
@@ -217,8 +238,13 @@ public class LiveWallpaperService extends WallpaperService {
             try {
                 File original = WallpaperUtils.getImageFile(this,
                         BingWallpaperUtils.generateUrl(this, image.image).getImageUrl());
-                image.wallpaper = WallpaperUtils.getImageStackBlurFile(image.config, original,
-                        image.image.getImageUrl());
+                WallpaperFileStore.acquire(original);
+                try {
+                    image.wallpaper = WallpaperUtils.getImageStackBlurFile(this, image.config, original,
+                            image.image.getImageUrl());
+                } finally {
+                    WallpaperFileStore.release(original);
+                }
             } catch (Exception e) {
                 return Observable.error(e);
             }
@@ -249,8 +275,8 @@ public class LiveWallpaperService extends WallpaperService {
         mLoadWallpaperDisposable.add(Utils.addSubscribe(
                 Observable.just(wallpaper)
                         .subscribeOn(Schedulers.io())
-                        .retryWhen(new RetryWithDelay(3, 5))
-                        .compose(download()),
+                        .compose(download())
+                        .retryWhen(RetryPolicy.create(2, 5, TimeUnit.SECONDS)),
                 new Callback.EmptyCallback<DownloadBitmap>() {
 
                     @Override
@@ -300,6 +326,23 @@ public class LiveWallpaperService extends WallpaperService {
                     + config.getStackBlur();
         }
 
+        /**
+         * The files are drawn again on every surface change, they stay acquired while the engine caches them
+         */
+        private void acquire() {
+            if (wallpaper != null) {
+                WallpaperFileStore.acquire(wallpaper.getHome());
+                WallpaperFileStore.acquire(wallpaper.getLock());
+            }
+        }
+
+        private void release() {
+            if (wallpaper != null) {
+                WallpaperFileStore.release(wallpaper.getHome());
+                WallpaperFileStore.release(wallpaper.getLock());
+            }
+        }
+
         public boolean eq(DownloadBitmap b) {
             if (b == null) {
                 return false;
@@ -363,7 +406,15 @@ public class LiveWallpaperService extends WallpaperService {
             mSelectWallpaperRunnable = this::selectWallpaper;
 
             mReceiver = new LiveWallpaperEngineBroadcastReceiver();
-            mImageCache = new LruCache<>(8);
+            mImageCache = new LruCache<String, DownloadBitmap>(8) {
+                @Override
+                protected void entryRemoved(boolean evicted, String key, DownloadBitmap oldValue,
+                        DownloadBitmap newValue) {
+                    if (oldValue != newValue) {
+                        oldValue.release();
+                    }
+                }
+            };
             mBitmapCache = new BitmapCache();
 
             if (!isPreview()) {
@@ -434,7 +485,9 @@ public class LiveWallpaperService extends WallpaperService {
             Bitmap bitmap = mBitmapCache.get(wallpaper.key());
             if (bitmap == null || bitmap.isRecycled()) {
                 if (wallpaper.wallpaper.getHome().exists()) {
-                    bitmap = BitmapFactory.decodeFile(wallpaper.wallpaper.getHome().getAbsolutePath());
+                    bitmap = BitmapDecoder.decode(wallpaper.wallpaper.getHome(),
+                            getSurfaceHolder().getSurfaceFrame().width(),
+                            getSurfaceHolder().getSurfaceFrame().height(), BitmapDecoder.USE_DRAW);
                     if (bitmap == null) {
                         return;
                     }
@@ -549,7 +602,7 @@ public class LiveWallpaperService extends WallpaperService {
             mPreviewDisposable = Utils.addSubscribe(
                     Observable.just(true)
                             .subscribeOn(Schedulers.io())
-                            .compose(load(config)).retryWhen(new RetryWithDelay(6, 5)),
+                            .compose(load(config)).retryWhen(RetryPolicy.create(5, 5, TimeUnit.SECONDS)),
                     new Callback.EmptyCallback<DownloadBitmap>() {
 
                         @Override
@@ -569,14 +622,15 @@ public class LiveWallpaperService extends WallpaperService {
             mDisplayDisposable = Utils.addSubscribe(
                     Observable.just(wallpaper)
                             .subscribeOn(Schedulers.io())
-                            .retryWhen(new RetryWithDelay(3, 20))
-                            .compose(download()),
+                            .compose(download())
+                            .retryWhen(RetryPolicy.create(2, 20, TimeUnit.SECONDS)),
                     new Callback.EmptyCallback<DownloadBitmap>() {
 
                         @Override
                         public void onSuccess(DownloadBitmap d) {
                             d.updateSize(getSurfaceHolder());
                             mLastFile = d;
+                            d.acquire();
                             mImageCache.put(d.key(), d);
                             postDraw();
                         }
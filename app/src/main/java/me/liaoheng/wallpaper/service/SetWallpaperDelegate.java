@@ -9,12 +9,18 @@ import com.github.liaoheng.common.util.L;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import me.liaoheng.wallpaper.data.BingWallpaperNetworkClient;
 import me.liaoheng.wallpaper.model.Config;
 import me.liaoheng.wallpaper.model.Wallpaper;
+import me.liaoheng.wallpaper.util.AppliedWallpaper;
 import me.liaoheng.wallpaper.util.IUIHelper;
+import me.liaoheng.wallpaper.util.RetryPolicy;
+import me.liaoheng.wallpaper.util.Settings;
 import me.liaoheng.wallpaper.util.UIHelper;
+import me.liaoheng.wallpaper.util.WallpaperFileStore;
+import me.liaoheng.wallpaper.util.WallpaperRenditionPlanner;
 import me.liaoheng.wallpaper.util.WallpaperUtils;
 
 /**
@@ -26,6 +32,7 @@ public class SetWallpaperDelegate {
     private final Context mContext;
     private final IUIHelper mUiHelper;
     private final SetWallpaperServiceHelper mServiceHelper;
+    private final RetryPolicy mRetryPolicy = RetryPolicy.create(2, 5, TimeUnit.SECONDS);
 
     public SetWallpaperDelegate(Context context, String tag) {
         TAG = tag;
@@ -61,13 +68,15 @@ public class SetWallpaperDelegate {
             }
         };
 
-        mServiceHelper.begin(config, showNotification);
+        if (!config.isBackground()) {
+            mServiceHelper.begin(config, showNotification);
+        }
 
         if (image == null) {
             try {
-                image = BingWallpaperNetworkClient.getWallpaper(getContext(), false);
+                image = mRetryPolicy.execute(() -> BingWallpaperNetworkClient.getWallpaper(getContext(), false));
                 image.setResolutionImageUrl(getContext());
-            } catch (IOException e) {
+            } catch (Exception e) {
                 callback.onError(e);
                 return;
             }
@@ -77,6 +86,14 @@ public class SetWallpaperDelegate {
             }
         }
 
+        if (config.isBackground()) {
+            if (AppliedWallpaper.isApplied(getContext(), image, config)) {
+                mServiceHelper.skip(config, image);
+                return;
+            }
+            mServiceHelper.begin(config, showNotification);
+        }
+
         try {
             downloadAndSetWallpaper(image, config);
             callback.onSuccess(image);
@@ -95,16 +112,24 @@ public class SetWallpaperDelegate {
 
     private void downloadAndSetWallpaper(Wallpaper image, Config config)
             throws Throwable {
-        File wallpaper = WallpaperUtils.getImageFile(getContext(), image.getImageUrl());
+        boolean save = config.isBackground() && Settings.isAutoSave(getContext());
+        WallpaperRenditionPlanner.Result renditions = mRetryPolicy.execute(
+                () -> WallpaperRenditionPlanner.fetch(getContext(), image, save));
+        File wallpaper = renditions.set;
 
         if (wallpaper == null || !wallpaper.exists()) {
             throw new IOException("Download wallpaper failure");
         }
 
-        if (config.isBackground()) {
-            WallpaperUtils.autoSaveWallpaper(getContext(), TAG, image, wallpaper);
+        WallpaperFileStore.acquire(wallpaper);
+        WallpaperFileStore.acquire(renditions.save);
+        try {
+            WallpaperUtils.autoSaveWallpaper(getContext(), TAG, renditions);
+            mUiHelper.setWallpaper(getContext(), config, wallpaper, image.getImageUrl());
+        } finally {
+            WallpaperFileStore.release(renditions.save);
+            WallpaperFileStore.release(wallpaper);
         }
-        mUiHelper.setWallpaper(getContext(), config, wallpaper, image.getImageUrl());
     }
 
     private Context getContext() {
@@ -7,8 +7,10 @@ import com.github.liaoheng.common.util.L;
 import me.liaoheng.wallpaper.model.BingWallpaperState;
 import me.liaoheng.wallpaper.model.Config;
 import me.liaoheng.wallpaper.model.Wallpaper;
+import me.liaoheng.wallpaper.util.AppliedWallpaper;
 import me.liaoheng.wallpaper.util.BingWallpaperUtils;
 import me.liaoheng.wallpaper.util.CrashReportHandle;
+import me.liaoheng.wallpaper.util.DiskCacheQuota;
 import me.liaoheng.wallpaper.util.LogDebugFileUtils;
 import me.liaoheng.wallpaper.util.NotificationUtils;
 import me.liaoheng.wallpaper.util.SetWallpaperStateBroadcastReceiverHelper;
@@ -72,9 +74,23 @@ public class SetWallpaperServiceHelper {
         } else {
             showSuccessNotification(image, config.isShowNotification());
         }
+        AppliedWallpaper.markApplied(mContext, image, config);
         AppWidget_5x2.start(mContext, image);
         AppWidget_5x1.start(mContext, image);
         sendSetWallpaperBroadcast(BingWallpaperState.SUCCESS);
+        DiskCacheQuota.trimAsync(mContext);
+    }
+
+    /**
+     * Nothing changed since the last set, nothing is downloaded or applied
+     */
+    public void skip(Config config, Wallpaper image) {
+        int count = Settings.increaseSetWallpaperSkipCount(mContext);
+        L.alog().i(TAG, "wallpaper already applied, skip : %s (%d)", image.getBaseUrl(), count);
+        if (Settings.isEnableLogProvider(mContext)) {
+            LogDebugFileUtils.get().i(TAG, "Wallpaper already applied, skip : %s (%d)", image.getBaseUrl(), count);
+        }
+        BingWallpaperUtils.taskComplete(mContext, TAG);
     }
 
     private void showSuccessNotification(Wallpaper image, boolean isShow) {
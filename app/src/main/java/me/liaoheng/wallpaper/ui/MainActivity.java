@@ -9,7 +9,6 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.res.Configuration;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Build;
 import android.os.Bundle;
 import android.text.TextUtils;
@@ -56,6 +55,7 @@ import me.liaoheng.wallpaper.model.BingWallpaperState;
 import me.liaoheng.wallpaper.model.Config;
 import me.liaoheng.wallpaper.model.Wallpaper;
 import me.liaoheng.wallpaper.util.BingWallpaperUtils;
+import me.liaoheng.wallpaper.util.BitmapDecoder;
 import me.liaoheng.wallpaper.util.BottomViewListener;
 import me.liaoheng.wallpaper.util.Constants;
 import me.liaoheng.wallpaper.util.CrashReportHandle;
@@ -150,7 +150,8 @@ public class MainActivity extends BaseActivity
                 @Override
                 public void onSuccess(File file) {
                     mViewBinding.bingWallpaperView.setImageBitmap(
-                            BitmapFactory.decodeFile(file.getAbsolutePath()));
+                            BitmapDecoder.decodeForScreen(getApplicationContext(), file,
+                                    BitmapDecoder.USE_DRAW));
                 }
             });
         });
@@ -216,10 +217,6 @@ public class MainActivity extends BaseActivity
 
     @SuppressLint({ "SetTextI18n", "CheckResult" })
     private void getBingWallpaper() {
-        if (!BingWallpaperUtils.isConnected(getApplicationContext())) {
-            mViewBinding.bingWallpaperError.setText(getString(R.string.network_unavailable));
-            return;
-        }
         showSwipeRefreshLayout();
 
         BingWallpaperNetworkClient.getBingWallpaper(this)
@@ -407,7 +404,8 @@ public class MainActivity extends BaseActivity
                             @Override
                             public void onSuccess(File file) {
                                 mViewBinding.bingWallpaperView.setImageBitmap(
-                                        BitmapFactory.decodeFile(file.getAbsolutePath()));
+                                        BitmapDecoder.decodeForScreen(getApplicationContext(), file,
+                                                BitmapDecoder.USE_DRAW));
                             }
 
                             @Override
@@ -0,0 +1,57 @@
+package me.liaoheng.wallpaper.ui;
+
+import android.os.Bundle;
+import android.text.TextUtils;
+
+import com.github.liaoheng.common.util.Callback;
+import com.github.liaoheng.common.util.Utils;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import me.liaoheng.wallpaper.R;
+import me.liaoheng.wallpaper.databinding.ActivityNetworkTimingBinding;
+import me.liaoheng.wallpaper.util.BitmapDecoder;
+import me.liaoheng.wallpaper.util.DiskCacheQuota;
+import me.liaoheng.wallpaper.util.NetUtils;
+import me.liaoheng.wallpaper.util.NetworkTiming;
+
+/**
+ * 网络请求耗时与磁盘缓存使用，只包含当前进程的统计
+ *
+ * @author liaoheng
+ * @date 2026-10-18 16:05
+ */
+public class NetworkTimingActivity extends BaseActivity {
+    private ActivityNetworkTimingBinding mViewBinding;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        mViewBinding = ActivityNetworkTimingBinding.inflate(getLayoutInflater());
+        setContentView(mViewBinding.getRoot());
+        setTitle(R.string.pref_network_timing);
+        mViewBinding.networkTimingRefresh.setOnRefreshListener(() -> {
+            show();
+            mViewBinding.networkTimingRefresh.setRefreshing(false);
+        });
+        show();
+    }
+
+    private void show() {
+        String summary = NetworkTiming.getSummary();
+        if (TextUtils.isEmpty(summary)) {
+            summary = getString(R.string.network_timing_empty) + "\n";
+        }
+        if (NetUtils.get().getCachedDns() != null) {
+            summary += NetUtils.get().getCachedDns() + "\n";
+        }
+        mViewBinding.networkTimingText.setText(summary);
+        String timing = summary;
+        Utils.addSubscribe(DiskCacheQuota.report(this).observeOn(AndroidSchedulers.mainThread()),
+                new Callback.EmptyCallback<String>() {
+                    @Override
+                    public void onSuccess(String report) {
+                        mViewBinding.networkTimingText.setText(timing + "\n" + report + BitmapDecoder.getReport());
+                    }
+                });
+    }
+}
@@ -37,6 +37,7 @@ import me.liaoheng.wallpaper.util.BingWallpaperJobManager;
 import me.liaoheng.wallpaper.util.BingWallpaperUtils;
 import me.liaoheng.wallpaper.util.Constants;
 import me.liaoheng.wallpaper.util.CrashReportHandle;
+import me.liaoheng.wallpaper.util.DiskCacheQuota;
 import me.liaoheng.wallpaper.util.ISettingTrayPreferences;
 import me.liaoheng.wallpaper.util.LogDebugFileUtils;
 import me.liaoheng.wallpaper.util.SettingTrayPreferences;
@@ -123,6 +124,7 @@ public class SettingsActivity extends BaseActivity {
     public static final String PREF_STACK_BLUR = "pref_stack_blur";
     public static final String PREF_STACK_BLUR_MODE = "pref_stack_blur_mode";
     public static final String PREF_AUTO_SAVE_WALLPAPER_FILE = "pref_auto_save_wallpaper_file";
+    public static final String PREF_CACHE_QUOTA = "pref_cache_quota";
 
     public final static class MyPreferenceFragment extends PreferenceFragmentCompat
             implements SharedPreferences.OnSharedPreferenceChangeListener {
@@ -139,11 +141,13 @@ public class SettingsActivity extends BaseActivity {
         private ListPreference mSaveResolutionListPreference;
         private ListPreference mModeTypeListPreference;
         private SwitchPreference mLogPreference;
+        private Preference mNetworkTimingPreference;
         private SwitchPreference mCrashPreference;
         private SwitchPreference mMIuiLockScreenPreference;
         private SeekBarDialogPreference mStackBlurPreference;
         private ListPreference mStackBlurModePreference;
         private SwitchPreference mAutoSaveWallpaperPreference;
+        private ListPreference mCacheQuotaListPreference;
 
         @Override
         public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
@@ -241,6 +245,12 @@ public class SettingsActivity extends BaseActivity {
                 return true;
             });
 
+            mNetworkTimingPreference = findPreference("pref_network_timing");
+            mNetworkTimingPreference.setOnPreferenceClickListener(preference -> {
+                UIUtils.startActivity(requireContext(), NetworkTimingActivity.class);
+                return true;
+            });
+
             mDailyUpdatePreference = findPreference(
                     PREF_SET_WALLPAPER_DAILY_UPDATE);
             mDailyUpdateModeListPreference = findPreference(PREF_SET_WALLPAPER_DAILY_UPDATE_MODE);
@@ -257,6 +267,8 @@ public class SettingsActivity extends BaseActivity {
             mOnlyWifiPreference = findPreference(PREF_SET_WALLPAPER_DAY_AUTO_UPDATE_ONLY_WIFI);
             mMIuiLockScreenPreference = findPreference(PREF_SET_MIUI_LOCK_SCREEN_WALLPAPER);
             mLogPreference = findPreference(PREF_SET_WALLPAPER_LOG);
+            // diagnostics only with the debug log
+            mNetworkTimingPreference.setVisible(mLogPreference.isChecked());
             mCrashPreference = findPreference(PREF_CRASH_REPORT);
             mStackBlurPreference = findPreference(PREF_STACK_BLUR);
             int stackBlur = Settings.getSettingStackBlur(getActivity());
@@ -264,6 +276,7 @@ public class SettingsActivity extends BaseActivity {
             mStackBlurPreference.setSummary(String.valueOf(stackBlur));
             mStackBlurModePreference = findPreference(PREF_STACK_BLUR_MODE);
             mAutoSaveWallpaperPreference = findPreference(PREF_AUTO_SAVE_WALLPAPER_FILE);
+            mCacheQuotaListPreference = findPreference(PREF_CACHE_QUOTA);
 
             if (Build.VERSION.SDK_INT > Build.VERSION_CODES.R || !ROM.getROM().isMiui()) {
                 ((PreferenceCategory) findPreference("pref_wallpaper_group")).removePreference(
@@ -289,6 +302,7 @@ public class SettingsActivity extends BaseActivity {
             mSaveResolutionListPreference.setSummary(Settings.getSaveResolution(requireContext()));
             mCountryListPreference.setSummary(Settings.getCountryName(requireContext()));
             mLanguageListPreference.setSummary(Settings.getLanguageName(requireContext()));
+            mCacheQuotaListPreference.setSummary(mCacheQuotaListPreference.getEntry());
 
             mDailyUpdateModeListPreference.setSummary(Settings.getAutomaticUpdateTypeName(requireContext()));
             mDailyUpdateIntervalPreference.setSummary(getString(R.string.pref_auto_update_check_time,
@@ -371,6 +385,11 @@ public class SettingsActivity extends BaseActivity {
                     mPreferences.put(PREF_COUNTRY, mCountryListPreference.getValue());
                     BingWallpaperUtils.clearNetCache().subscribe();
                     break;
+                case PREF_CACHE_QUOTA:
+                    mCacheQuotaListPreference.setSummary(mCacheQuotaListPreference.getEntry());
+                    mPreferences.put(PREF_CACHE_QUOTA, mCacheQuotaListPreference.getValue());
+                    DiskCacheQuota.trimAsync(requireContext());
+                    break;
                 case PREF_LANGUAGE:
                     LanguageContextWrapper.wrap(requireContext(), BingWallpaperUtils.getLanguage(requireContext()));
                     isChangeLanguage = true;
@@ -430,6 +449,7 @@ public class SettingsActivity extends BaseActivity {
                     break;
                 case PREF_SET_WALLPAPER_LOG:
                     mPreferences.put(PREF_SET_WALLPAPER_LOG, mLogPreference.isChecked());
+                    mNetworkTimingPreference.setVisible(mLogPreference.isChecked());
                     if (mLogPreference.isChecked()) {
                         LogDebugFileUtils.create(requireContext());
                     } else {
@@ -5,7 +5,6 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.res.Configuration;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -36,12 +35,14 @@ import me.liaoheng.wallpaper.model.BingWallpaperState;
 import me.liaoheng.wallpaper.model.Config;
 import me.liaoheng.wallpaper.model.Wallpaper;
 import me.liaoheng.wallpaper.util.BingWallpaperUtils;
+import me.liaoheng.wallpaper.util.BitmapDecoder;
 import me.liaoheng.wallpaper.util.Constants;
 import me.liaoheng.wallpaper.util.CrashReportHandle;
 import me.liaoheng.wallpaper.util.DownloadHelper;
 import me.liaoheng.wallpaper.util.GlideApp;
 import me.liaoheng.wallpaper.util.SetWallpaperStateBroadcastReceiverHelper;
 import me.liaoheng.wallpaper.util.Settings;
+import me.liaoheng.wallpaper.util.WallpaperPipeline;
 import me.liaoheng.wallpaper.util.WallpaperUtils;
 import me.liaoheng.wallpaper.widget.ResolutionDialog;
 import me.liaoheng.wallpaper.widget.SeekBarDialogFragment;
@@ -237,12 +238,13 @@ public class WallpaperDetailActivity extends BaseActivity implements
                                 mViewBinding.bingWallpaperDetailSubscaleView.setImage(
                                         ImageSource.uri(Uri.fromFile(file)));
                             } else {
-                                Bitmap bitmap = BitmapFactory.decodeFile(file.getAbsolutePath());
+                                Bitmap bitmap = BitmapDecoder.decodeForScreen(getApplicationContext(), file,
+                                        BitmapDecoder.USE_PREVIEW);
                                 if (bitmap == null) {
                                     onError(new IOException("bitmap is null"));
                                     return;
                                 }
-                                bitmap = WallpaperUtils.transformStackBlur(bitmap, mConfig.getStackBlur());
+                                bitmap = WallpaperPipeline.blur(file, bitmap, mConfig.getStackBlur());
                                 mViewBinding.bingWallpaperDetailSubscaleView.setVisibility(View.GONE);
                                 mViewBinding.bingWallpaperDetailSubscaleView.recycle();
                                 mViewBinding.bingWallpaperDetailImage.setVisibility(View.VISIBLE);
@@ -1,26 +1,38 @@
 package me.liaoheng.wallpaper.ui;
 
 import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 
 import com.github.liaoheng.common.adapter.core.HandleView;
 import com.github.liaoheng.common.adapter.core.RecyclerViewHelper;
 import com.github.liaoheng.common.util.Callback;
+import com.github.liaoheng.common.util.Callback4;
 import com.github.liaoheng.common.util.Callback5;
+import com.github.liaoheng.common.util.NetworkUtils;
+import com.github.liaoheng.common.util.UIUtils;
 import com.github.liaoheng.common.util.Utils;
 import com.github.liaoheng.common.util.ValidateUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import androidx.recyclerview.widget.GridLayoutManager;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import me.liaoheng.wallpaper.R;
 import me.liaoheng.wallpaper.adapter.WallpaperAdapter;
-import me.liaoheng.wallpaper.data.BingWallpaperNetworkClient;
+import me.liaoheng.wallpaper.data.BingWallpaperPager;
 import me.liaoheng.wallpaper.databinding.ActivityWallpaperHistoryListBinding;
 import me.liaoheng.wallpaper.model.Wallpaper;
+import me.liaoheng.wallpaper.util.BingWallpaperUtils;
+import me.liaoheng.wallpaper.util.BulkWallpaperExporter;
 import me.liaoheng.wallpaper.util.CrashReportHandle;
+import me.liaoheng.wallpaper.util.NotificationUtils;
+import me.liaoheng.wallpaper.widget.ResolutionDialog;
 
 /**
  * 壁纸历史列表
@@ -33,9 +45,8 @@ public class WallpaperHistoryListActivity extends BaseActivity {
     private RecyclerViewHelper mRecyclerViewHelper;
     private WallpaperAdapter mWallpaperAdapter;
     private ActivityWallpaperHistoryListBinding mViewBinding;
-    private int index;
-    @SuppressWarnings("FieldCanBeLocal")
-    private final int count = 8;
+    private ResolutionDialog mResolutionDialog;
+    private Disposable mExportDisposable;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,22 +67,76 @@ public class WallpaperHistoryListActivity extends BaseActivity {
         mRecyclerViewHelper = builder.setMergedIntoLineSpanSizeLookup().build();
 
         mRecyclerViewHelper.changeToLoadMoreLoading();
-        getBingWallpaperList(new Callback5.EmptyCallback() {
+        getBingWallpaperList();
+
+        mResolutionDialog = ResolutionDialog.with(this, new Callback4.EmptyCallback<String>() {
             @Override
-            public void onAllow() {
-                getBingWallpaperList(new Callback5.EmptyCallback() {
-                    @Override
-                    public void onAllow() {
-                        mWallpaperAdapter.notifyDataSetChanged();
-                    }
-                });
+            public void onYes(String resolution) {
+                if (NetworkUtils.isMobileConnected(getActivity())) {
+                    UIUtils.showYNAlertDialog(getActivity(), getString(R.string.alert_mobile_data),
+                            new Callback5.EmptyCallback() {
+                                @Override
+                                public void onAllow() {
+                                    exportWallpapers(resolution);
+                                }
+                            });
+                } else {
+                    exportWallpapers(resolution);
+                }
             }
         });
     }
 
-    private void getBingWallpaperList(final Callback5 callback) {
-        Observable<List<Wallpaper>> listObservable = BingWallpaperNetworkClient.getBingWallpaper(this, index,
-                count).compose(this.bindToLifecycle());
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.wallpaper_history_list, menu);
+        return super.onCreateOptionsMenu(menu);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.menu_wallpaper_save_all) {
+            if (isExporting()) {
+                cancelExport();
+            } else if (!mWallpaperAdapter.isEmpty() && BingWallpaperUtils.requestStoragePermissions(this)) {
+                mResolutionDialog.show();
+            }
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    private boolean isExporting() {
+        return mExportDisposable != null && !mExportDisposable.isDisposed();
+    }
+
+    private void exportWallpapers(String resolution) {
+        List<Wallpaper> wallpapers = new ArrayList<>(mWallpaperAdapter.getList());
+        NotificationUtils.showExportNotification(getApplicationContext(), 0, wallpapers.size());
+        mExportDisposable = BulkWallpaperExporter.export(this, wallpapers, resolution)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(progress -> NotificationUtils.showExportNotification(getApplicationContext(),
+                        progress.getDone(), progress.total), e -> {
+                    NotificationUtils.clearExportNotification(getApplicationContext());
+                    UIUtils.showToast(getApplicationContext(), R.string.alert_save_wallpaper_failure);
+                }, () -> UIUtils.showToast(getApplicationContext(), R.string.alert_save_wallpaper_success));
+    }
+
+    private void cancelExport() {
+        Utils.dispose(mExportDisposable);
+        NotificationUtils.clearExportNotification(getApplicationContext());
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (isExporting()) {
+            cancelExport();
+        }
+        super.onDestroy();
+    }
+
+    private void getBingWallpaperList() {
+        Observable<List<Wallpaper>> listObservable = BingWallpaperPager.getBingWallpaperList(this)
+                .compose(this.bindToLifecycle());
         Utils.addSubscribe(listObservable, new Callback.EmptyCallback<List<Wallpaper>>() {
             @Override
             public void onPreExecute() {
@@ -81,6 +146,7 @@ public class WallpaperHistoryListActivity extends BaseActivity {
             @Override
             public void onPostExecute() {
                 mRecyclerViewHelper.setLoadMoreLoading(false);
+                mRecyclerViewHelper.setLoadMoreHasLoadedAllItems(true);
             }
 
             @Override
@@ -88,23 +154,17 @@ public class WallpaperHistoryListActivity extends BaseActivity {
                 if (ValidateUtils.isItemEmpty(wallpapers)) {
                     return;
                 }
-                if (mWallpaperAdapter.isEmpty()) {
-                    mRecyclerViewHelper.setLoadMoreHasLoadedAllItems(false);
-                } else {
-                    wallpapers.remove(0);
-                    mRecyclerViewHelper.setLoadMoreHasLoadedAllItems(true);
-                }
+                mWallpaperAdapter.getList().clear();
                 mWallpaperAdapter.addAll(wallpapers);
-                index += wallpapers.size();
-                if (callback != null) {
-                    callback.onAllow();
-                }
+                mWallpaperAdapter.notifyDataSetChanged();
             }
 
             @Override
             public void onError(Throwable e) {
                 mRecyclerViewHelper.changeToLoadMoreComplete();
-                setBingWallpaperError(e);
+                if (mWallpaperAdapter.isEmpty()) {
+                    setBingWallpaperError(e);
+                }
             }
         });
     }
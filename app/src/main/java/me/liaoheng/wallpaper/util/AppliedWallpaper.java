@@ -0,0 +1,43 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import me.liaoheng.wallpaper.model.Config;
+import me.liaoheng.wallpaper.model.Wallpaper;
+
+/**
+ * 已设置壁纸的标识，后台定时任务在下载前检查，壁纸与设置都没有变化时直接跳过
+ *
+ * @author liaoheng
+ * @date 2026-10-18 20:50
+ */
+public class AppliedWallpaper {
+
+    /**
+     * urlbase, resolution, blur, blur mode and wallpaper mode, anything that changes the applied result
+     */
+    @NonNull
+    public static String getKey(Context context, @NonNull Wallpaper image, @NonNull Config config) {
+        return image.getBaseUrl() + "|" + Settings.getResolution(context) + "|" + config.getStackBlur() + "|"
+                + config.getStackBlurMode() + "|" + config.getWallpaperMode();
+    }
+
+    /**
+     * Only background sets are checked, a set by the user always applies
+     */
+    public static boolean isApplied(Context context, Wallpaper image, Config config) {
+        if (image == null || config == null || !config.isBackground()) {
+            return false;
+        }
+        return getKey(context, image, config).equals(Settings.getLastWallpaperAppliedKey(context));
+    }
+
+    public static void markApplied(Context context, Wallpaper image, Config config) {
+        if (image == null || config == null) {
+            return;
+        }
+        Settings.setLastWallpaperAppliedKey(context, getKey(context, image, config));
+    }
+}
@@ -34,6 +34,7 @@ public class BingWallpaperJobManager {
 
     public static void disabled(Context context, boolean force) {
         WorkerManager.disabled(context);
+        WorkerManager.disabledPrefetch(context);
         BingWallpaperAlarmManager.disabled(context);
         if (force || Settings.getJobType(context) == Settings.LIVE_WALLPAPER) {
             try {
@@ -52,6 +53,7 @@ public class BingWallpaperJobManager {
         Observable.just("").subscribeOn(Schedulers.io()).map((Function<String, Object>) s -> {
             BingWallpaperUtils.clearTaskComplete(context);
             Settings.setLastWallpaperImageUrl(context, "");
+            Settings.setLastWallpaperAppliedKey(context, "");
             return "";
         }).subscribe();
     }
@@ -66,6 +68,15 @@ public class BingWallpaperJobManager {
 
     @Settings.JobType
     public static int enabledJob(Context context) {
+        int type = enabledJobType(context);
+        if (type != Settings.NONE) {
+            WorkerManager.enabledPrefetch(context);
+        }
+        return type;
+    }
+
+    @Settings.JobType
+    private static int enabledJobType(Context context) {
         try {
             clear(context);
             int type = Settings.getAutomaticUpdateType(context);
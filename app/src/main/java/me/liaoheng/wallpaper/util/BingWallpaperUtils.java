@@ -54,6 +54,8 @@ import org.joda.time.format.DateTimeFormat;
 
 import java.io.File;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -62,6 +64,9 @@ import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import me.liaoheng.wallpaper.BuildConfig;
 import me.liaoheng.wallpaper.R;
+import me.liaoheng.wallpaper.data.BingWallpaperCatalog;
+import me.liaoheng.wallpaper.data.BingWallpaperNetworkClient;
+import me.liaoheng.wallpaper.data.BingWallpaperRevalidator;
 import me.liaoheng.wallpaper.model.Config;
 import me.liaoheng.wallpaper.model.Wallpaper;
 import me.liaoheng.wallpaper.service.BingWallpaperIntentService;
@@ -210,9 +215,24 @@ public class BingWallpaperUtils {
         }
     }
 
+    /**
+     * Markets that can be chosen in the country setting
+     */
+    public static final int MARKET_COUNT = 9;
+
     @NonNull
     public static Locale getLocale(Context context) {
-        switch (Settings.getCountryValue(context)) {
+        Locale locale = getMarketLocale(Settings.getCountryValue(context));
+        if (locale != null) {
+            return locale;
+        }
+        Locale originalLocale = LanguageContextWrapper.getOriginalLocale();
+        return originalLocale == null ? LanguageContextWrapper.getCurrentLocale(context) : originalLocale;
+    }
+
+    @Nullable
+    public static Locale getMarketLocale(int country) {
+        switch (country) {
             case 1:
                 return Locale.CHINA;
             case 2:
@@ -232,13 +252,27 @@ public class BingWallpaperUtils {
             case 9:
                 return LocaleList.bgLocale();
             default:
-                Locale originalLocale = LanguageContextWrapper.getOriginalLocale();
-                return originalLocale == null ? LanguageContextWrapper.getCurrentLocale(context) : originalLocale;
+                return null;
         }
     }
 
+    /**
+     * Every market of the country setting, lang-COUNTRY
+     */
+    @NonNull
+    public static List<String> getMarkets() {
+        List<String> markets = new ArrayList<>();
+        for (int i = 1; i <= MARKET_COUNT; i++) {
+            markets.add(toMarket(getMarketLocale(i)));
+        }
+        return markets;
+    }
+
     public static String getAutoLocale(Context context) {
-        Locale locale = getLocale(context);
+        return toMarket(getLocale(context));
+    }
+
+    public static String toMarket(Locale locale) {
         String country = locale.getCountry();
         String language = locale.getLanguage();
         return language + "-" + country;
@@ -674,6 +708,9 @@ public class BingWallpaperUtils {
                     GlideApp.get(c).clearDiskCache();
                     NetUtils.get().clearCache();
                     CacheUtils.get().clear();
+                    BingWallpaperCatalog.clear(c);
+                    BingWallpaperNetworkClient.getSingleFlight().clear();
+                    BingWallpaperRevalidator.clear(c);
                     return c;
                 }).observeOn(AndroidSchedulers.mainThread()).map(c -> {
                     GlideApp.get(c).clearMemory();
@@ -0,0 +1,151 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.L;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按目标尺寸解码图片，先读取尺寸，再用inSampleSize与inDensity/inTargetDensity缩放到刚好覆盖目标大小，按用途选择像素格式
+ * <p>
+ * The image is scaled to cover the target (like a center crop), it is never scaled up. A target of 0 keeps the
+ * full size.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 21:30
+ */
+public class BitmapDecoder {
+    private static final String TAG = BitmapDecoder.class.getSimpleName();
+
+    /**
+     * Drawn on a surface or a view at full quality
+     */
+    public static final int USE_DRAW = 0;
+    /**
+     * Input of a transform whose result is encoded again (blur, crop)
+     */
+    public static final int USE_PROCESS = 1;
+    /**
+     * In-app preview of an opaque wallpaper, half the memory of ARGB_8888
+     */
+    public static final int USE_PREVIEW = 2;
+    /**
+     * Drawn on in place (watermark), mutable ARGB_8888
+     */
+    public static final int USE_EDIT = 3;
+
+    private static final AtomicLong COUNT = new AtomicLong();
+    private static final AtomicLong TIME = new AtomicLong();
+    private static final AtomicLong BYTES = new AtomicLong();
+    private static final AtomicLong SOURCE_BYTES = new AtomicLong();
+
+    /**
+     * Covers the screen in the current orientation
+     */
+    @Nullable
+    public static Bitmap decodeForScreen(Context context, File file, int use) {
+        DisplayMetrics size = BingWallpaperUtils.getSysResolution(context);
+        return decode(file, size.widthPixels, size.heightPixels, use);
+    }
+
+    @Nullable
+    public static Bitmap decode(File file, int width, int height, int use) {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        long start = SystemClock.elapsedRealtime();
+        String path = file.getAbsolutePath();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        int sourceWidth = options.outWidth;
+        int sourceHeight = options.outHeight;
+        if (sourceWidth <= 0 || sourceHeight <= 0) {
+            return null;
+        }
+        options.inJustDecodeBounds = false;
+        options.inPreferredConfig = getConfig(use, options.outMimeType);
+        options.inMutable = use == USE_EDIT;
+        float scale = getScale(sourceWidth, sourceHeight, width, height);
+        options.inSampleSize = getSampleSize(scale);
+        if (scale < 1f) {
+            int sampledWidth = sourceWidth / options.inSampleSize;
+            int targetWidth = (int) Math.ceil(sourceWidth * scale);
+            if (targetWidth < sampledWidth) {
+                options.inScaled = true;
+                options.inDensity = sampledWidth;
+                options.inTargetDensity = targetWidth;
+            }
+        }
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeFile(path, options);
+        } catch (OutOfMemoryError e) {
+            L.alog().e(TAG, e, "decode out of memory : %dx%d", sourceWidth, sourceHeight);
+            return null;
+        }
+        if (bitmap == null) {
+            return null;
+        }
+        // a density scaled bitmap would be scaled again when drawn
+        bitmap.setDensity(Bitmap.DENSITY_NONE);
+        long time = SystemClock.elapsedRealtime() - start;
+        long bytes = bitmap.getAllocationByteCount();
+        long sourceBytes = (long) sourceWidth * sourceHeight * 4;
+        COUNT.incrementAndGet();
+        TIME.addAndGet(time);
+        BYTES.addAndGet(bytes);
+        SOURCE_BYTES.addAndGet(sourceBytes);
+        L.alog().d(TAG, "decode %dx%d -> %dx%d %s, %d ms, %d KB (full %d KB)", sourceWidth, sourceHeight,
+                bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig(), time, bytes / 1024, sourceBytes / 1024);
+        return bitmap;
+    }
+
+    /**
+     * Scale that covers the target, at most 1
+     */
+    static float getScale(int sourceWidth, int sourceHeight, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return 1f;
+        }
+        return Math.min(1f, Math.max(width / (float) sourceWidth, height / (float) sourceHeight));
+    }
+
+    /**
+     * Largest power of two that still keeps the scale
+     */
+    static int getSampleSize(float scale) {
+        int sampleSize = 1;
+        while (1f / (sampleSize * 2) >= scale) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static Bitmap.Config getConfig(int use, String mimeType) {
+        if (use == USE_PREVIEW && "image/jpeg".equals(mimeType)) {
+            return Bitmap.Config.RGB_565;
+        }
+        return Bitmap.Config.ARGB_8888;
+    }
+
+    @NonNull
+    public static String getReport() {
+        long count = COUNT.get();
+        if (count == 0) {
+            return "decode     none\n";
+        }
+        return String.format(Locale.US, "decode     %d, avg %d ms, %.1fMB of %.1fMB full size%n", count,
+                TIME.get() / count, BYTES.get() / 1048576f, SOURCE_BYTES.get() / 1048576f);
+    }
+}
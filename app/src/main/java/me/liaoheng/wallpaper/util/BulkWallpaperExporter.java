@@ -0,0 +1,205 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.provider.MediaStore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+import com.github.liaoheng.common.util.FileUtils;
+import com.github.liaoheng.common.util.L;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import me.liaoheng.wallpaper.model.Wallpaper;
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * 批量保存壁纸到相册，限制同时下载数量，已保存的文件(按文件名)跳过
+ *
+ * @author liaoheng
+ * @date 2026-10-18 19:20
+ */
+public class BulkWallpaperExporter {
+    private static final String TAG = BulkWallpaperExporter.class.getSimpleName();
+    public static final int MAX_CONCURRENCY = 3;
+
+    public static final int SAVED = 0;
+    public static final int SKIPPED = 1;
+    public static final int FAILED = 2;
+
+    public static class Progress {
+        public final int total;
+        public int saved;
+        public int skipped;
+        public int failed;
+
+        Progress(int total) {
+            this.total = total;
+        }
+
+        public int getDone() {
+            return saved + skipped + failed;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d/%d saved=%d skipped=%d failed=%d", getDone(), total, saved,
+                    skipped, failed);
+        }
+    }
+
+    /**
+     * Disposing cancels the in-flight calls, their sockets are released at once.
+     *
+     * @return progress after every finished wallpaper
+     */
+    public static Observable<Progress> export(Context context, List<Wallpaper> wallpapers, String resolution) {
+        Context applicationContext = context.getApplicationContext();
+        Progress progress = new Progress(wallpapers.size());
+        return Observable.fromIterable(wallpapers)
+                .flatMap(wallpaper -> save(applicationContext,
+                        BingWallpaperUtils.getImageUrl(applicationContext, resolution, wallpaper.getBaseUrl()))
+                        .subscribeOn(Schedulers.io()), false, MAX_CONCURRENCY)
+                .map(result -> {
+                    if (result == SAVED) {
+                        progress.saved++;
+                    } else if (result == SKIPPED) {
+                        progress.skipped++;
+                    } else {
+                        progress.failed++;
+                    }
+                    return progress;
+                });
+    }
+
+    private static Observable<Integer> save(Context context, String url) {
+        return Observable.create(emitter -> {
+            String name = BingWallpaperUtils.getWallpaperName(url);
+            if (isSaved(context, getImageName(url))) {
+                emitter.onNext(SKIPPED);
+                emitter.onComplete();
+                return;
+            }
+            Call call = NetUtils.get().getDownloadClient(context).newCall(new Request.Builder().url(url).build());
+            emitter.setCancellable(call::cancel);
+            try (Response response = call.execute()) {
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    throw new HttpStatusException(response.code());
+                }
+                ImageValidator.checkContentType(url, response.header("Content-Type"));
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    write(context, name, body.byteStream());
+                } else {
+                    writeCompat(context, url, body.byteStream());
+                }
+                emitter.onNext(SAVED);
+            } catch (IOException e) {
+                if (emitter.isDisposed()) {
+                    return;
+                }
+                L.alog().w(TAG, e, "save failure : %s", url);
+                if (Settings.isEnableLogProvider(context)) {
+                    LogDebugFileUtils.get().e(TAG, e, "Save failure : %s", url);
+                }
+                emitter.onNext(FAILED);
+            }
+            emitter.onComplete();
+        });
+    }
+
+    /**
+     * The gallery name starts with the save date, the image part after it is the same for the same image
+     */
+    private static String getImageName(String url) {
+        String name = BingWallpaperUtils.getWallpaperName(url);
+        int index = name.indexOf('_');
+        return index < 0 ? name : name.substring(index + 1);
+    }
+
+    private static boolean isSaved(Context context, String imageName) {
+        String escaped = imageName.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        try (Cursor cursor = context.getContentResolver().query(MediaStore.Images.Media.EXTERNAL_CONTENT_URI,
+                new String[] { MediaStore.Images.Media._ID },
+                MediaStore.Images.Media.DISPLAY_NAME + " LIKE ? ESCAPE '\\'",
+                new String[] { "%\\_" + escaped }, null)) {
+            return cursor != null && cursor.getCount() > 0;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stream into a pending MediaStore entry, it is only visible once complete
+     */
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static void write(Context context, String name, InputStream in) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.Images.Media.DISPLAY_NAME, name);
+        values.put(MediaStore.Images.Media.MIME_TYPE, "image/jpeg");
+        values.put(MediaStore.Images.Media.RELATIVE_PATH,
+                Environment.DIRECTORY_PICTURES + File.separator + Constants.PROJECT_NAME);
+        values.put(MediaStore.Images.Media.IS_PENDING, 1);
+        Uri uri = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
+        if (uri == null) {
+            throw new IOException("MediaStore insert failure");
+        }
+        try (OutputStream out = resolver.openOutputStream(uri)) {
+            if (out == null) {
+                throw new IOException("MediaStore open failure");
+            }
+            copy(in, out);
+        } catch (IOException e) {
+            resolver.delete(uri, null, null);
+            throw e;
+        }
+        values.clear();
+        values.put(MediaStore.Images.Media.IS_PENDING, 0);
+        resolver.update(uri, values, null, null);
+    }
+
+    private static void writeCompat(Context context, String url, InputStream in) throws IOException {
+        File dir = FileUtils.getProjectSpaceCacheDirectory(context, Constants.DOWNLOAD_DIR);
+        File temp = new File(dir, BingWallpaperUtils.createKey(url) + ".export");
+        WallpaperFileStore.acquire(temp);
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                copy(in, out);
+            }
+            ImageValidator.check(url, temp);
+            WallpaperUtils.saveToFile(context, url, temp);
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            WallpaperFileStore.release(temp);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
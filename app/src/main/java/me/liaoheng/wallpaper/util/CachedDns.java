@@ -0,0 +1,225 @@
+package me.liaoheng.wallpaper.util;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.L;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.Dns;
+
+/**
+ * DoH结果缓存（内存+磁盘），过期后先返回旧结果并在后台刷新，DoH失败时使用系统DNS
+ * <p>
+ * okhttp-dnsoverhttps does not expose the record TTL, every answer is kept for {@link #ttl}.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 15:10
+ */
+public class CachedDns implements Dns {
+    private static final String TAG = CachedDns.class.getSimpleName();
+    private static final String FILE_NAME = "doh";
+
+    private static class Entry {
+        final List<InetAddress> addresses;
+        final long expires;
+
+        Entry(List<InetAddress> addresses, long expires) {
+            this.addresses = addresses;
+            this.expires = expires;
+        }
+    }
+
+    private final Dns delegate;
+    private final File file;
+    private final long ttl;
+    private final long maxStale;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong lookupTime = new AtomicLong();
+
+    /**
+     * @param dir      disk cache directory, null: memory only
+     * @param ttl      answer ttl, millisecond
+     * @param maxStale how long an expired answer can still be served while refreshing, millisecond
+     */
+    public CachedDns(@NonNull Dns delegate, @Nullable File dir, long ttl, long maxStale) {
+        this.delegate = delegate;
+        this.file = dir == null ? null : new File(dir, FILE_NAME);
+        this.ttl = ttl;
+        this.maxStale = maxStale;
+    }
+
+    @NonNull
+    @Override
+    public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
+        load();
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(hostname);
+        if (entry != null && now < entry.expires) {
+            hits.incrementAndGet();
+            return entry.addresses;
+        }
+        if (entry != null && now < entry.expires + maxStale) {
+            staleHits.incrementAndGet();
+            refresh(hostname);
+            return entry.addresses;
+        }
+        misses.incrementAndGet();
+        return resolve(hostname);
+    }
+
+    private void refresh(String hostname) {
+        if (!refreshing.add(hostname)) {
+            return;
+        }
+        Schedulers.io().scheduleDirect(() -> {
+            try {
+                resolve(hostname);
+            } catch (UnknownHostException e) {
+                L.alog().w(TAG, e, "refresh : %s", hostname);
+            } finally {
+                refreshing.remove(hostname);
+            }
+        });
+    }
+
+    private List<InetAddress> resolve(String hostname) throws UnknownHostException {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            List<InetAddress> addresses = delegate.lookup(hostname);
+            cache.put(hostname, new Entry(addresses, System.currentTimeMillis() + ttl));
+            save();
+            return addresses;
+        } catch (UnknownHostException e) {
+            fallbacks.incrementAndGet();
+            L.alog().w(TAG, e, "doh failure, use system dns : %s", hostname);
+            return Dns.SYSTEM.lookup(hostname);
+        } finally {
+            lookupCount.incrementAndGet();
+            lookupTime.addAndGet(SystemClock.elapsedRealtime() - start);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            loaded = true;
+            if (file == null || !file.exists()) {
+                return;
+            }
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    if (fields.length != 3) {
+                        continue;
+                    }
+                    List<InetAddress> addresses = new ArrayList<>();
+                    for (String ip : fields[2].split(",")) {
+                        addresses.add(InetAddress.getByAddress(fields[0], InetAddress.getByName(ip).getAddress()));
+                    }
+                    cache.put(fields[0], new Entry(addresses, Long.parseLong(fields[1])));
+                }
+            } catch (IOException | RuntimeException e) {
+                L.alog().w(TAG, e, "load");
+            }
+        }
+    }
+
+    private synchronized void save() {
+        if (file == null) {
+            return;
+        }
+        File temp = new File(file.getParentFile(), FILE_NAME + "." + Process.myPid() + ".tmp");
+        try (Writer writer = new FileWriter(temp)) {
+            for (Map.Entry<String, Entry> item : cache.entrySet()) {
+                StringBuilder ips = new StringBuilder();
+                for (InetAddress address : item.getValue().addresses) {
+                    if (ips.length() > 0) {
+                        ips.append(',');
+                    }
+                    ips.append(address.getHostAddress());
+                }
+                writer.write(item.getKey() + "\t" + item.getValue().expires + "\t" + ips + "\n");
+            }
+        } catch (IOException e) {
+            L.alog().w(TAG, e, "save");
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            L.alog().w(TAG, "save rename failure");
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    /**
+     * fresh and stale answers served from the cache
+     */
+    public float getHitRate() {
+        long served = getHits() + getStaleHits();
+        long total = served + getMisses();
+        return total == 0 ? 0 : (float) served / total;
+    }
+
+    /**
+     * Average time of a real DoH lookup, millisecond
+     */
+    public long getAverageLookupTime() {
+        long count = lookupCount.get();
+        return count == 0 ? 0 : lookupTime.get() / count;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "CachedDns{hitRate=" + getHitRate() + ", hits=" + getHits() + ", staleHits=" + getStaleHits()
+                + ", misses=" + getMisses() + ", fallbacks=" + getFallbacks() + ", averageLookupTime="
+                + getAverageLookupTime() + "ms}";
+    }
+}
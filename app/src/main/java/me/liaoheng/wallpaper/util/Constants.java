@@ -20,8 +20,8 @@ public interface Constants {
 
     String DISK_CACHE_DIR = "imgCache";
     String HTTP_CACHE_DIR = "httpCache";
-    int IMAGE_DISK_CACHE_SIZE = 50 * 1024 * 1024; // 50MB
-    int HTTP_DISK_CACHE_SIZE = 5 * 1024 * 1024;  // 5MB
+    String DNS_CACHE_DIR = "dnsCache";
+    String DOWNLOAD_DIR = "download";
 
     long DEF_SCHEDULER_PERIODIC = 3;//hour
     String DEF_TIMER_PERIODIC = new LocalTime(0, 35).toString();
@@ -57,6 +57,8 @@ public interface Constants {
     String PREF_APPWIDGET_5X1_ENABLE = "appwidget_5x1_enable";
     String PREF_APPWIDGET_5X2_ENABLE = "appwidget_5x2_enable";
     String PREF_LAST_WALLPAPER_IMAGE_URL = "last_wallpaper_image_url";
+    String PREF_LAST_WALLPAPER_APPLIED_KEY = "last_wallpaper_applied_key";
+    String PREF_SET_WALLPAPER_SKIP_COUNT = "set_wallpaper_skip_count";
 
     /**
      * 0. both , 1. home , 2. lock
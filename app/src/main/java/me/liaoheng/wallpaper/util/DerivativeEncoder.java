@@ -0,0 +1,184 @@
+package me.liaoheng.wallpaper.util;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 衍生图片(模糊，水印，裁剪，缩放)的缓存编码，每种衍生图片可配置编码格式
+ * <p>
+ * The format is part of the cache key, changing it never reads an entry written in another format, and
+ * {@link Format#of(File)} tells the format of an entry from its header.
+ * <p>
+ * Entries live in the {@link CacheUtils} directory, one plain file per key. {@link DiskCacheQuota} evicts them
+ * through {@link #evict(File)}, and {@link #get(String, String)} checks the file itself, so an evicted entry is
+ * a miss whatever the cache library remembers about it.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 20:20
+ */
+public class DerivativeEncoder {
+    public static final String KIND_BLUR = "blur";
+    public static final String KIND_MARK = "mark";
+    public static final String KIND_THUMBNAIL = "thumbnail";
+    public static final String KIND_RENDITION = "rendition";
+
+    public enum Format {
+        JPEG("jpg", "image/jpeg", 90),
+        /**
+         * blurred images have no fine detail left, a low quality is not visible
+         */
+        WEBP_LOSSY("webp", "image/webp", 70),
+        /**
+         * quality is the compression effort here, higher is smaller and slower
+         */
+        WEBP_LOSSLESS("webp", "image/webp", 50),
+        /**
+         * lossless before R, quality is ignored
+         */
+        PNG("png", "image/png", 100);
+
+        public final String extension;
+        public final String mimeType;
+        public final int quality;
+
+        Format(String extension, String mimeType, int quality) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+            this.quality = quality;
+        }
+
+        @SuppressWarnings("deprecation")
+        public Bitmap.CompressFormat getCompressFormat() {
+            switch (this) {
+                case WEBP_LOSSY:
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                        return Bitmap.CompressFormat.WEBP_LOSSY;
+                    }
+                    return Bitmap.CompressFormat.WEBP;
+                case WEBP_LOSSLESS:
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                        return Bitmap.CompressFormat.WEBP_LOSSLESS;
+                    }
+                    return Bitmap.CompressFormat.WEBP;
+                case PNG:
+                    return Bitmap.CompressFormat.PNG;
+                default:
+                    return Bitmap.CompressFormat.JPEG;
+            }
+        }
+
+        /**
+         * Before R the only lossless switch is WEBP at quality 100, and only from Q on, use {@link #PNG} there
+         * when the result must be lossless
+         */
+        public int getCompressQuality() {
+            if (this == WEBP_LOSSLESS && Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+                return 100;
+            }
+            return quality;
+        }
+
+        /**
+         * Format of an encoded file, by its header
+         */
+        @Nullable
+        public static Format of(File file) {
+            byte[] head = new byte[16];
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.readFully(head);
+            } catch (IOException e) {
+                return null;
+            }
+            if ((head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8) {
+                return JPEG;
+            }
+            if ((head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+                return PNG;
+            }
+            if (head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                    && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+                return head[12] == 'V' && head[13] == 'P' && head[14] == '8' && head[15] == 'L' ? WEBP_LOSSLESS
+                        : WEBP_LOSSY;
+            }
+            return null;
+        }
+    }
+
+    private static final Map<String, Format> FORMATS = new ConcurrentHashMap<>();
+
+    static {
+        FORMATS.put(KIND_BLUR, Format.WEBP_LOSSY);
+        // full size with sharp text, lossless: WEBP_LOSSLESS from R, before that WEBP is lossy (lossless at
+        // quality 100 only on Q), PNG is larger and slower to encode but never re-encodes the image lossy
+        FORMATS.put(KIND_MARK, Build.VERSION.SDK_INT >= Build.VERSION_CODES.R ? Format.WEBP_LOSSLESS : Format.PNG);
+        FORMATS.put(KIND_THUMBNAIL, Format.JPEG);
+        FORMATS.put(KIND_RENDITION, Format.JPEG);
+    }
+
+    @NonNull
+    public static Format getFormat(String kind) {
+        Format format = FORMATS.get(kind);
+        return format == null ? Format.JPEG : format;
+    }
+
+    public static void setFormat(String kind, @NonNull Format format) {
+        FORMATS.put(kind, format);
+    }
+
+    public static String getKey(String key, String kind) {
+        return BingWallpaperUtils.createKey(key + "_" + kind + "." + getFormat(kind).name());
+    }
+
+    @Nullable
+    public static File get(String key, String kind) {
+        File file = CacheUtils.get().get(getKey(key, kind));
+        return file != null && file.exists() ? file : null;
+    }
+
+    /**
+     * Delete an entry unless it is acquired in this process
+     */
+    static boolean evict(File file) {
+        return !WallpaperFileStore.isAcquired(file) && file.delete();
+    }
+
+    @Nullable
+    public static File put(String key, String kind, Bitmap bitmap) {
+        return CacheUtils.get().put(getKey(key, kind), encode(bitmap, getFormat(kind)));
+    }
+
+    public static byte[] compress(Bitmap bitmap, Format format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(format.getCompressFormat(), format.getCompressQuality(), out);
+        return out.toByteArray();
+    }
+
+    public static InputStream encode(Bitmap bitmap, Format format) {
+        return new ByteArrayInputStream(compress(bitmap, format));
+    }
+
+    /**
+     * Mime type of an encoded file, jpeg when unknown
+     */
+    public static String getMimeType(File file) {
+        Format format = Format.of(file);
+        return format == null ? Format.JPEG.mimeType : format.mimeType;
+    }
+
+    public static String getExtension(File file) {
+        Format format = Format.of(file);
+        return format == null ? Format.JPEG.extension : format.extension;
+    }
+}
@@ -0,0 +1,336 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.StructStat;
+
+import androidx.annotation.NonNull;
+
+import com.github.liaoheng.common.util.FileUtils;
+import com.github.liaoheng.common.util.L;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.Cache;
+
+/**
+ * 磁盘缓存总配额，Glide与OkHttp按比例分配并自行LRU淘汰，其余文件缓存按价值与最后使用时间统一淘汰
+ * <p>
+ * Cheap derivatives (blur, watermark, thumbnail, downscaled renditions) and share copies go first, then
+ * unfinished downloads, the downloaded originals go last. Every area is evicted through its owner. The wallpaper
+ * store hard links the same file into several areas, a file is counted once by its inode and only frees space
+ * when its last link goes.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 18:40
+ */
+public class DiskCacheQuota {
+    private static final String TAG = DiskCacheQuota.class.getSimpleName();
+    private static final long MB = 1024 * 1024;
+
+    public static final String AREA_IMAGE = "image";
+    public static final String AREA_HTTP = "http";
+    public static final String AREA_DERIVATIVE = "derivative";
+    public static final String AREA_SHARE = "share";
+    public static final String AREA_DOWNLOAD = "download";
+    public static final String AREA_WALLPAPER = "wallpaper";
+
+    /**
+     * percent of the total budget, the default 100MB keeps the former 50MB image and 5MB http cache
+     */
+    private static final int IMAGE_PERCENT = 50;
+    private static final int HTTP_PERCENT = 5;
+
+    private static final Map<String, AtomicLong[]> STATS = new LinkedHashMap<>();
+
+    static {
+        for (String area : new String[] { AREA_IMAGE, AREA_DERIVATIVE, AREA_WALLPAPER }) {
+            STATS.put(area, new AtomicLong[] { new AtomicLong(), new AtomicLong() });
+        }
+    }
+
+    public static long getBudget(Context context) {
+        return Settings.getCacheQuota(context) * MB;
+    }
+
+    public static long getImageCacheSize(Context context) {
+        return getBudget(context) * IMAGE_PERCENT / 100;
+    }
+
+    public static long getHttpCacheSize(Context context) {
+        return getBudget(context) * HTTP_PERCENT / 100;
+    }
+
+    public static void hit(String area) {
+        AtomicLong[] stats = STATS.get(area);
+        if (stats != null) {
+            stats[0].incrementAndGet();
+        }
+    }
+
+    public static void miss(String area) {
+        AtomicLong[] stats = STATS.get(area);
+        if (stats != null) {
+            stats[1].incrementAndGet();
+        }
+    }
+
+    /**
+     * Evicted by value, lower first
+     */
+    private static int value(String area) {
+        switch (area) {
+            case AREA_DERIVATIVE:
+            case AREA_SHARE:
+                return 0;
+            case AREA_DOWNLOAD:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
+    private static Map<String, File> getFileAreas(Context context) throws IOException {
+        Map<String, File> areas = new LinkedHashMap<>();
+        areas.put(AREA_DERIVATIVE, CacheUtils.getTempFile(context));
+        areas.put(AREA_SHARE, FileUtils.getProjectSpaceCacheDirectory(context, WallpaperFileStore.SHARE_DIR));
+        areas.put(AREA_DOWNLOAD, FileUtils.getProjectSpaceCacheDirectory(context, Constants.DOWNLOAD_DIR));
+        areas.put(AREA_WALLPAPER, FileUtils.getProjectSpaceCacheDirectory(context, WallpaperFileStore.WALLPAPER_DIR));
+        return areas;
+    }
+
+    /**
+     * Trim on the io scheduler
+     */
+    public static void trimAsync(Context context) {
+        Context applicationContext = context.getApplicationContext();
+        Observable.just(applicationContext).subscribeOn(Schedulers.io()).map(c -> {
+            trim(c);
+            return c;
+        }).subscribe(c -> {
+        }, e -> L.alog().w(TAG, e, "trim failure"));
+    }
+
+    /**
+     * Keep the file caches within the budget left by the image and http caches, blocking
+     */
+    public static synchronized void trim(Context context) throws IOException {
+        long budget = getBudget(context) - getImageCacheSize(context) - getHttpCacheSize(context);
+        List<Entry> entries = new ArrayList<>();
+        Set<String> counted = new HashSet<>();
+        long total = 0;
+        for (Map.Entry<String, File> area : getFileAreas(context).entrySet()) {
+            for (File file : listFiles(area.getValue())) {
+                entries.add(new Entry(file, area.getKey()));
+                if (counted.add(getInode(file))) {
+                    total += file.length();
+                }
+            }
+        }
+        if (total <= budget) {
+            return;
+        }
+        Collections.sort(entries, (o1, o2) -> {
+            if (o1.value != o2.value) {
+                return Integer.compare(o1.value, o2.value);
+            }
+            return Long.compare(o1.lastModified, o2.lastModified);
+        });
+        long freed = 0;
+        int deleted = 0;
+        for (Entry entry : entries) {
+            if (total - freed <= budget) {
+                break;
+            }
+            long length = entry.file.length();
+            boolean last = getLinks(entry.file) <= 1;
+            if (delete(entry)) {
+                if (last) {
+                    freed += length;
+                }
+                deleted++;
+            }
+        }
+        L.alog().d(TAG, "trim %d files, %d bytes", deleted, freed);
+        if (Settings.isEnableLogProvider(context)) {
+            LogDebugFileUtils.get().i(TAG, "Trim %d files, %d bytes", deleted, freed);
+        }
+    }
+
+    /**
+     * Files in use by any process are kept
+     */
+    private static boolean delete(Entry entry) {
+        switch (entry.area) {
+            case AREA_DOWNLOAD:
+                // a running download holds the lock of its part file, an export is acquired or recently written
+                return !WallpaperFileStore.isInUse(entry.file) && ResumableDownloader.deleteIdle(entry.file);
+            case AREA_WALLPAPER:
+            case AREA_SHARE:
+                return !WallpaperFileStore.isInUse(entry.file) && entry.file.delete();
+            default:
+                return DerivativeEncoder.evict(entry.file);
+        }
+    }
+
+    /**
+     * Device and inode, the same for every hard link of a file, the canonical path without them
+     */
+    private static String getInode(File file) {
+        try {
+            StructStat stat = Os.stat(file.getAbsolutePath());
+            return stat.st_dev + ":" + stat.st_ino;
+        } catch (ErrnoException e) {
+            try {
+                return file.getCanonicalPath();
+            } catch (IOException ignored) {
+                return file.getAbsolutePath();
+            }
+        }
+    }
+
+    private static long getLinks(File file) {
+        try {
+            return Os.stat(file.getAbsolutePath()).st_nlink;
+        } catch (ErrnoException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Usage and hit rate of every cache, on the io scheduler
+     */
+    public static Observable<String> report(Context context) {
+        return Observable.just(context.getApplicationContext()).subscribeOn(Schedulers.io())
+                .map(DiskCacheQuota::getReport);
+    }
+
+    @NonNull
+    public static String getReport(Context context) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        long total = 0;
+        long image = size(FileUtils.getProjectSpaceCacheDirectory(context, Constants.DISK_CACHE_DIR));
+        total += image;
+        append(builder, AREA_IMAGE, image, getImageCacheSize(context));
+        Cache cache = NetUtils.get().getCache();
+        long http = cache == null ? 0 : cache.size();
+        total += http;
+        builder.append(String.format(Locale.US, "%-10s %s / %s", AREA_HTTP, format(http),
+                format(getHttpCacheSize(context))));
+        if (cache != null) {
+            builder.append(String.format(Locale.US, ", hit %d/%d", cache.hitCount(), cache.requestCount()));
+        }
+        builder.append('\n');
+        Set<String> counted = new HashSet<>();
+        for (Map.Entry<String, File> area : getFileAreas(context).entrySet()) {
+            long size = size(area.getValue(), counted);
+            total += size;
+            append(builder, area.getKey(), size, -1);
+            if (AREA_DERIVATIVE.equals(area.getKey())) {
+                appendFormats(builder, area.getValue());
+            }
+        }
+        builder.append(String.format(Locale.US, "%-10s %s / %s%n", "total", format(total),
+                format(getBudget(context))));
+        return builder.toString();
+    }
+
+    private static void append(StringBuilder builder, String area, long size, long limit) {
+        builder.append(String.format(Locale.US, "%-10s %s", area, format(size)));
+        if (limit >= 0) {
+            builder.append(" / ").append(format(limit));
+        }
+        AtomicLong[] stats = STATS.get(area);
+        if (stats != null) {
+            long hit = stats[0].get();
+            builder.append(String.format(Locale.US, ", hit %d/%d", hit, hit + stats[1].get()));
+        }
+        builder.append('\n');
+    }
+
+    /**
+     * Derivative entries by encoding format
+     */
+    private static void appendFormats(StringBuilder builder, File dir) {
+        Map<String, long[]> formats = new LinkedHashMap<>();
+        for (File file : listFiles(dir)) {
+            DerivativeEncoder.Format format = DerivativeEncoder.Format.of(file);
+            String name = format == null ? "other" : format.name().toLowerCase(Locale.US);
+            long[] stats = formats.get(name);
+            if (stats == null) {
+                stats = new long[2];
+                formats.put(name, stats);
+            }
+            stats[0]++;
+            stats[1] += file.length();
+        }
+        for (Map.Entry<String, long[]> entry : formats.entrySet()) {
+            builder.append(String.format(Locale.US, "  %-13s %d files, %s%n", entry.getKey(),
+                    entry.getValue()[0], format(entry.getValue()[1])));
+        }
+    }
+
+    private static String format(long bytes) {
+        return String.format(Locale.US, "%.1fMB", bytes / (float) MB);
+    }
+
+    private static List<File> listFiles(File dir) {
+        List<File> files = new ArrayList<>();
+        File[] list = dir.listFiles();
+        if (list == null) {
+            return files;
+        }
+        for (File file : list) {
+            if (file.isDirectory()) {
+                files.addAll(listFiles(file));
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private static long size(File dir) {
+        return size(dir, new HashSet<>());
+    }
+
+    /**
+     * @param counted inodes already counted in another area, a hard link is counted in the first area only
+     */
+    private static long size(File dir, Set<String> counted) {
+        long size = 0;
+        for (File file : listFiles(dir)) {
+            if (counted.add(getInode(file))) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private static class Entry {
+        final File file;
+        final String area;
+        final int value;
+        final long lastModified;
+
+        Entry(File file, String area) {
+            this.file = file;
+            this.area = area;
+            this.value = value(area);
+            this.lastModified = file.lastModified();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package me.liaoheng.wallpaper.util;
+
+import java.io.IOException;
+
+/**
+ * Response that is not successful, keeps the http code for {@link RetryPolicy}
+ *
+ * @author liaoheng
+ * @date 2026-10-18 14:02
+ */
+public class HttpStatusException extends IOException {
+    private final int code;
+
+    public HttpStatusException(int code) {
+        this(code, "bing server response failure");
+    }
+
+    public HttpStatusException(int code, String message) {
+        super(message + " : " + code);
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,180 @@
+package me.liaoheng.wallpaper.util;
+
+import android.graphics.BitmapFactory;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * 下载的图片在进入缓存前校验：Content-Type，文件头与inJustDecodeBounds解码尺寸
+ * <p>
+ * A 200 html page from a captive portal or a CDN error must never be cached, it would fail every later decode.
+ * {@link ImageInterceptor} checks image responses on the shared OkHttp engine, so the Glide disk cache is covered
+ * as well as the downloads.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 21:10
+ */
+public class ImageValidator {
+    public static final String JPEG = "jpeg";
+    public static final String PNG = "png";
+    public static final String WEBP = "webp";
+    public static final String GIF = "gif";
+
+    /**
+     * bytes searched for the jpeg end marker, some encoders pad after it
+     */
+    private static final int JPEG_TAIL = 64;
+    private static final int MAGIC_LENGTH = 12;
+    /**
+     * .../th?id=OHR.Name_ZH-CN123_1920x1080.jpg, the extension may be followed by more query parameters
+     */
+    private static final Pattern IMAGE_URL = Pattern.compile(".*\\.(jpe?g|png|webp|gif)([&#].*)?$",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Missing or generic binary types are accepted and left to the file check
+     */
+    public static boolean isImageContentType(@Nullable String contentType) {
+        if (TextUtils.isEmpty(contentType)) {
+            return true;
+        }
+        String type = contentType.toLowerCase(Locale.US).trim();
+        return type.startsWith("image/") || type.startsWith("application/octet-stream");
+    }
+
+    public static void checkContentType(String url, @Nullable String contentType) throws InvalidImageException {
+        if (!isImageContentType(contentType)) {
+            throw new InvalidImageException("not an image (" + contentType + ") : " + url);
+        }
+    }
+
+    /**
+     * Image format by the magic bytes, null when it is not an image
+     */
+    @Nullable
+    public static String sniff(File file) {
+        byte[] head = new byte[MAGIC_LENGTH];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readFully(head);
+        } catch (IOException e) {
+            return null;
+        }
+        return sniff(head);
+    }
+
+    @Nullable
+    static String sniff(byte[] head) {
+        if (head.length < MAGIC_LENGTH) {
+            return null;
+        }
+        if ((head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return JPEG;
+        }
+        if ((head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return PNG;
+        }
+        if (head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return WEBP;
+        }
+        if (head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return GIF;
+        }
+        return null;
+    }
+
+    /**
+     * Known image header, readable bounds and a complete jpeg
+     */
+    public static boolean isValid(File file) {
+        if (file == null || !file.exists()) {
+            return false;
+        }
+        String format = sniff(file);
+        if (format == null) {
+            return false;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return false;
+        }
+        return !JPEG.equals(format) || hasJpegEnd(file);
+    }
+
+    /**
+     * A truncated jpeg has no EOI marker at the end, its bounds still decode
+     */
+    static boolean hasJpegEnd(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() < 4) {
+                return false;
+            }
+            int tail = (int) Math.min(JPEG_TAIL, raf.length() - 2);
+            byte[] end = new byte[tail];
+            raf.seek(raf.length() - tail);
+            raf.readFully(end);
+            for (int i = end.length - 2; i >= 0; i--) {
+                if ((end[i] & 0xFF) == 0xFF && (end[i + 1] & 0xFF) == 0xD9) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Delete the file when it is not a valid image
+     */
+    public static void check(String url, File file) throws InvalidImageException {
+        if (isValid(file)) {
+            return;
+        }
+        if (file != null) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+        throw new InvalidImageException("invalid image file : " + url);
+    }
+
+    /**
+     * Rejects an image url answered with something else, before OkHttp or Glide caches it. Other requests and
+     * partial (206) responses pass through, a range does not start with the magic bytes.
+     */
+    public static class ImageInterceptor implements Interceptor {
+
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Response response = chain.proceed(chain.request());
+            String url = chain.request().url().toString();
+            if (response.code() != 200 || !IMAGE_URL.matcher(url).matches()) {
+                return response;
+            }
+            String contentType = response.header("Content-Type");
+            if (!isImageContentType(contentType)) {
+                response.close();
+                throw new InvalidImageException("not an image (" + contentType + ") : " + url);
+            }
+            if (sniff(response.peekBody(MAGIC_LENGTH).bytes()) == null) {
+                response.close();
+                throw new InvalidImageException("not an image (magic) : " + url);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package me.liaoheng.wallpaper.util;
+
+import java.io.IOException;
+
+/**
+ * Response or file that is not an image (captive portal or CDN error page), not retried by {@link RetryPolicy}
+ *
+ * @author liaoheng
+ * @date 2026-10-18 21:10
+ */
+public class InvalidImageException extends IOException {
+
+    public InvalidImageException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,175 @@
+package me.liaoheng.wallpaper.util;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Java实现的Stack Blur(Mario Klingemann)，native库不可用时使用，也可以在JVM单元测试中运行
+ * <p>
+ * Works in place on an ARGB int[] buffer. The horizontal pass runs on stripes of rows and the vertical pass on
+ * stripes of columns in a fork-join pool, each stripe allocates one stack of 2r+1 pixels, nothing per pixel.
+ * Alpha is kept, the output is identical to the original algorithm.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 22:10
+ */
+public class JavaStackBlur implements StackBlurEngine.Blur {
+    /**
+     * lines of one stripe at the least, smaller is not worth a task
+     */
+    private static final int MIN_STRIPE = 16;
+
+    private static ForkJoinPool sPool;
+
+    private final ForkJoinPool mPool;
+    private final int mThreads;
+
+    public JavaStackBlur() {
+        this(getDefaultPool());
+    }
+
+    public JavaStackBlur(ForkJoinPool pool) {
+        mPool = pool;
+        mThreads = pool.getParallelism();
+    }
+
+    private static synchronized ForkJoinPool getDefaultPool() {
+        if (sPool == null) {
+            sPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        }
+        return sPool;
+    }
+
+    @NonNull
+    @Override
+    public Bitmap process(@NonNull Bitmap bitmap, int radius) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] pixels = new int[width * height];
+        bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+        blur(pixels, width, height, radius);
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    public void blur(int[] pixels, int width, int height, int radius) {
+        if (radius < 1 || width < 1 || height < 1) {
+            return;
+        }
+        mPool.invoke(new Stripe(pixels, width, height, radius, true, 0, height));
+        mPool.invoke(new Stripe(pixels, width, height, radius, false, 0, width));
+    }
+
+    private class Stripe extends RecursiveAction {
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final int radius;
+        private final boolean horizontal;
+        private final int from;
+        private final int to;
+
+        Stripe(int[] pixels, int width, int height, int radius, boolean horizontal, int from, int to) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.radius = radius;
+            this.horizontal = horizontal;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int lines = to - from;
+            int total = horizontal ? height : width;
+            if (mThreads > 1 && lines >= MIN_STRIPE * 2 && lines > total / mThreads) {
+                int middle = from + lines / 2;
+                invokeAll(new Stripe(pixels, width, height, radius, horizontal, from, middle),
+                        new Stripe(pixels, width, height, radius, horizontal, middle, to));
+                return;
+            }
+            int[] stack = new int[radius * 2 + 1];
+            for (int line = from; line < to; line++) {
+                if (horizontal) {
+                    blurLine(pixels, line * width, 1, width, radius, stack);
+                } else {
+                    blurLine(pixels, line, width, height, radius, stack);
+                }
+            }
+        }
+    }
+
+    /**
+     * One row (step 1) or one column (step width), in place
+     */
+    static void blurLine(int[] pixels, int start, int step, int length, int radius, int[] stack) {
+        int div = radius * 2 + 1;
+        int divSum = (radius + 1) * (radius + 1);
+        int last = length - 1;
+        int lastPixel = pixels[start + last * step];
+        int rSum = 0, gSum = 0, bSum = 0;
+        int rIn = 0, gIn = 0, bIn = 0;
+        int rOut = 0, gOut = 0, bOut = 0;
+        for (int i = -radius; i <= radius; i++) {
+            int p = pixels[start + Math.min(last, Math.max(i, 0)) * step];
+            stack[i + radius] = p;
+            int r = (p >> 16) & 0xff;
+            int g = (p >> 8) & 0xff;
+            int b = p & 0xff;
+            int weight = radius + 1 - Math.abs(i);
+            rSum += r * weight;
+            gSum += g * weight;
+            bSum += b * weight;
+            if (i > 0) {
+                rIn += r;
+                gIn += g;
+                bIn += b;
+            } else {
+                rOut += r;
+                gOut += g;
+                bOut += b;
+            }
+        }
+        int pointer = radius;
+        for (int x = 0, index = start; x < length; x++, index += step) {
+            pixels[index] = (stack[pointer] & 0xff000000) | ((rSum / divSum) << 16) | ((gSum / divSum) << 8)
+                    | (bSum / divSum);
+            rSum -= rOut;
+            gSum -= gOut;
+            bSum -= bOut;
+
+            int oldest = (pointer + radius + 1) % div;
+            int p = stack[oldest];
+            rOut -= (p >> 16) & 0xff;
+            gOut -= (p >> 8) & 0xff;
+            bOut -= p & 0xff;
+
+            int next = x + radius + 1;
+            // the last pixel may already be written when the window reaches it
+            p = next < last ? pixels[start + next * step] : lastPixel;
+            stack[oldest] = p;
+            rIn += (p >> 16) & 0xff;
+            gIn += (p >> 8) & 0xff;
+            bIn += p & 0xff;
+            rSum += rIn;
+            gSum += gIn;
+            bSum += bIn;
+
+            pointer = (pointer + 1) % div;
+            p = stack[pointer];
+            int r = (p >> 16) & 0xff;
+            int g = (p >> 8) & 0xff;
+            int b = p & 0xff;
+            rOut += r;
+            gOut += g;
+            bOut += b;
+            rIn -= r;
+            gIn -= g;
+            bIn -= b;
+        }
+    }
+}
@@ -35,7 +35,7 @@ public class MGlideModule extends AppGlideModule {
         try {
             File imgCache = FileUtils.getProjectSpaceCacheDirectory(context, Constants.DISK_CACHE_DIR);
             builder.setDiskCache(new DiskLruCacheFactory(imgCache.getAbsolutePath(),
-                    Constants.IMAGE_DISK_CACHE_SIZE));
+                    DiskCacheQuota.getImageCacheSize(context)));
         } catch (IOException ignored) {
         }
         builder.setLogLevel(BuildConfig.DEBUG ? Log.DEBUG : Log.INFO);
@@ -43,7 +43,8 @@ public class MGlideModule extends AppGlideModule {
 
     @Override
     public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
-        OkHttpClient.Builder builder = NetUtils.get().initOkHttpClientBuilder(context, 120, 60);
+        OkHttpClient.Builder builder = NetUtils.get().initOkHttpClientBuilder(context, 120, 60)
+                .eventListenerFactory(NetworkTiming.factory(context, NetworkTiming.TYPE_IMAGE));
         registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory((Call.Factory) builder.build()));
     }
 }
\ No newline at end of file
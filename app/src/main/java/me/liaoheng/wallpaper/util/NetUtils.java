@@ -3,13 +3,15 @@ package me.liaoheng.wallpaper.util;
 import android.content.Context;
 import android.net.Uri;
 
+import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
 
-import com.bumptech.glide.request.target.Target;
 import com.github.liaoheng.common.util.Callback;
 import com.github.liaoheng.common.util.FileUtils;
 import com.github.liaoheng.common.util.L;
 import com.github.liaoheng.common.util.Utils;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
 import java.io.File;
 import java.io.IOException;
@@ -21,6 +23,7 @@ import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import me.liaoheng.wallpaper.BuildConfig;
 import me.liaoheng.wallpaper.data.BingWallpaperNetworkService;
+import me.liaoheng.wallpaper.model.BingWallpaperTypeAdapterFactory;
 import okhttp3.Cache;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -50,8 +53,20 @@ public class NetUtils {
 
     private Retrofit mRetrofit;
 
+    private final Gson mGson = new GsonBuilder()
+            .registerTypeAdapterFactory(new BingWallpaperTypeAdapterFactory())
+            .create();
+
     private OkHttpClient client;
 
+    /**
+     * @return null when the http cache directory is not available
+     */
+    @Nullable
+    public Cache getCache() {
+        return client == null ? null : client.cache();
+    }
+
     public void clearCache() {
         if (client.cache() == null) {
             return;
@@ -62,29 +77,66 @@ public class NetUtils {
         }
     }
 
-    public OkHttpClient.Builder initOkHttpClientBuilder(Context context, long readTimeout, long connectTimeout) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder();
-        builder.readTimeout(readTimeout, TimeUnit.SECONDS)
-                .connectTimeout(connectTimeout, TimeUnit.SECONDS);
-        if (PreferenceManager
-                .getDefaultSharedPreferences(context).getBoolean("pref_doh", false)) {
-            DnsOverHttps.Builder dns = new DnsOverHttps.Builder()
-                    .client(new OkHttpClient.Builder().build());
-            if (BingWallpaperUtils.getLocale(context) == Locale.CHINA) {
-                dns.url(HttpUrl.get(Constants.DOH_CHINA));
+    /**
+     * DoH answers are kept at least this long, the record TTL is not exposed by okhttp-dnsoverhttps
+     */
+    private static final long DNS_TTL = TimeUnit.MINUTES.toMillis(30);
+    private static final long DNS_MAX_STALE = TimeUnit.DAYS.toMillis(1);
+
+    private OkHttpClient mEngine;
+    private CachedDns mDns;
+
+    /**
+     * @return null when DoH is off
+     */
+    @Nullable
+    public CachedDns getCachedDns() {
+        return mDns;
+    }
+
+    /**
+     * One connection pool and dispatcher for Retrofit, Glide and DoH, every client derives from it with
+     * {@link OkHttpClient#newBuilder()}. Image responses are validated here before any cache takes them.
+     */
+    public synchronized OkHttpClient getEngine(Context context) {
+        if (mEngine == null) {
+            OkHttpClient bootstrap = new OkHttpClient.Builder()
+                    .addInterceptor(new ImageValidator.ImageInterceptor())
+                    .build();
+            if (PreferenceManager
+                    .getDefaultSharedPreferences(context).getBoolean("pref_doh", false)) {
+                DnsOverHttps.Builder dns = new DnsOverHttps.Builder().client(bootstrap);
+                if (BingWallpaperUtils.getLocale(context) == Locale.CHINA) {
+                    dns.url(HttpUrl.get(Constants.DOH_CHINA));
+                } else {
+                    dns.url(HttpUrl.get(Constants.DOH_CLOUDFLARE));
+                }
+                File dir = null;
+                try {
+                    dir = FileUtils.getProjectSpaceCacheDirectory(context, Constants.DNS_CACHE_DIR);
+                } catch (IOException ignored) {
+                }
+                mDns = new CachedDns(dns.build(), dir, DNS_TTL, DNS_MAX_STALE);
+                mEngine = bootstrap.newBuilder().dns(mDns).build();
             } else {
-                dns.url(HttpUrl.get(Constants.DOH_CLOUDFLARE));
+                mEngine = bootstrap;
             }
-            builder.dns(dns.build());
         }
-        return builder;
+        return mEngine;
+    }
+
+    public OkHttpClient.Builder initOkHttpClientBuilder(Context context, long readTimeout, long connectTimeout) {
+        return getEngine(context).newBuilder()
+                .readTimeout(readTimeout, TimeUnit.SECONDS)
+                .connectTimeout(connectTimeout, TimeUnit.SECONDS);
     }
 
     public void init(Context context) {
         Retrofit.Builder factory = new Retrofit.Builder().baseUrl(Constants.LOCAL_BASE_URL)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(mGson))
                 .addCallAdapterFactory(RxJava3CallAdapterFactory.create());
-        OkHttpClient.Builder simpleBuilder = initOkHttpClientBuilder(context, 60, 30);
+        OkHttpClient.Builder simpleBuilder = initOkHttpClientBuilder(context, 60, 30)
+                .eventListenerFactory(NetworkTiming.factory(context, NetworkTiming.TYPE_METADATA));
         if (BuildConfig.DEBUG) {
             HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message -> L.alog().d("NetUtils", message));
             logging.setLevel(HttpLoggingInterceptor.Level.BODY);
@@ -92,13 +144,17 @@ public class NetUtils {
         }
         try {
             File cacheFile = FileUtils.getProjectSpaceCacheDirectory(context, Constants.HTTP_CACHE_DIR);
-            simpleBuilder.cache(new Cache(cacheFile, Constants.HTTP_DISK_CACHE_SIZE));
+            simpleBuilder.cache(new Cache(cacheFile, DiskCacheQuota.getHttpCacheSize(context)));
         } catch (IOException ignored) {
         }
         client = simpleBuilder.build();
         mRetrofit = factory.client(client).build();
     }
 
+    public Gson getGson() {
+        return mGson;
+    }
+
     private BingWallpaperNetworkService mBingWallpaperNetworkService;
 
     public BingWallpaperNetworkService getBingWallpaperNetworkService() {
@@ -112,11 +168,8 @@ public class NetUtils {
         Observable<Uri> observable = Observable.just(url).subscribeOn(Schedulers.io())
                 .flatMap(u -> {
                     try {
-                        File temp = GlideApp.with(context)
-                                .asFile()
-                                .load(u)
-                                .submit(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL)
-                                .get(2, TimeUnit.MINUTES);
+                        File temp = WallpaperUtils.getImageFile(context, u);
+                        ImageValidator.check(u, temp);
                         L.alog().i("NetUtils", "wallpaper download url: %s", u);
                         return Observable.just(WallpaperUtils.saveToFile(context, u, temp));
                     } catch (Throwable e) {
@@ -125,4 +178,26 @@ public class NetUtils {
                 });
         return Utils.addSubscribe(observable, callback);
     }
+
+    private OkHttpClient mDownloadClient;
+
+    synchronized OkHttpClient getDownloadClient(Context context) {
+        if (mDownloadClient == null) {
+            mDownloadClient = initOkHttpClientBuilder(context, 60, 30)
+                    .eventListenerFactory(NetworkTiming.factory(context, NetworkTiming.TYPE_IMAGE))
+                    .build();
+        }
+        return mDownloadClient;
+    }
+
+    /**
+     * Resumable download, an interrupted download continues from the received bytes on the next call
+     */
+    public File downloadImage(Context context, String url) throws IOException {
+        File dir = FileUtils.getProjectSpaceCacheDirectory(context, Constants.DOWNLOAD_DIR);
+        File file = new ResumableDownloader(getDownloadClient(context)).setImageOnly(true).download(url,
+                new File(dir, BingWallpaperUtils.createKey(WallpaperIdentity.getKey(url))));
+        ImageValidator.check(url, file);
+        return file;
+    }
 }
@@ -0,0 +1,282 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * 网络请求各阶段耗时，保存在内存环形缓冲区中
+ *
+ * @author liaoheng
+ * @date 2026-10-18 15:40
+ */
+public class NetworkTiming {
+    private static final String TAG = NetworkTiming.class.getSimpleName();
+    private static final int CAPACITY = 200;
+
+    public static final String TYPE_METADATA = "metadata";
+    public static final String TYPE_IMAGE = "image";
+
+    /**
+     * Phases of one call, millisecond, -1: the phase did not happen (pooled connection, plain http...)
+     */
+    public static class Record {
+        public final String type;
+        public final String host;
+        public long dns = -1;
+        public long connect = -1;
+        public long tls = -1;
+        public long ttfb = -1;
+        public long body = -1;
+        public long total;
+        public long requestBytes;
+        public long responseBytes;
+        public boolean success;
+
+        Record(String type, String host) {
+            this.type = type;
+            this.host = host;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s %s %s dns=%d connect=%d tls=%d ttfb=%d body=%d total=%d sent=%d received=%d", type,
+                    host, success ? "ok" : "failed", dns, connect, tls, ttfb, body, total, requestBytes,
+                    responseBytes);
+        }
+    }
+
+    private static final Record[] RECORDS = new Record[CAPACITY];
+    private static int mNext;
+    private static int mSize;
+
+    public static EventListener.Factory factory(Context context, String type) {
+        Context applicationContext = context.getApplicationContext();
+        return call -> new Listener(applicationContext, type);
+    }
+
+    private static synchronized void add(Record record) {
+        RECORDS[mNext] = record;
+        mNext = (mNext + 1) % CAPACITY;
+        mSize = Math.min(mSize + 1, CAPACITY);
+    }
+
+    /**
+     * oldest first
+     */
+    public static synchronized List<Record> getRecords() {
+        List<Record> records = new ArrayList<>(mSize);
+        int start = (mNext - mSize + CAPACITY) % CAPACITY;
+        for (int i = 0; i < mSize; i++) {
+            records.add(RECORDS[(start + i) % CAPACITY]);
+        }
+        return records;
+    }
+
+    public static synchronized void clear() {
+        mNext = 0;
+        mSize = 0;
+    }
+
+    /**
+     * p50/p95 of every phase, grouped by type and host
+     */
+    @NonNull
+    public static String getSummary() {
+        Map<String, List<Record>> groups = new LinkedHashMap<>();
+        for (Record record : getRecords()) {
+            String key = record.type + " " + record.host;
+            List<Record> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+            }
+            group.add(record);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, List<Record>> entry : groups.entrySet()) {
+            List<Record> group = entry.getValue();
+            List<Long> dns = new ArrayList<>();
+            List<Long> connect = new ArrayList<>();
+            List<Long> tls = new ArrayList<>();
+            List<Long> ttfb = new ArrayList<>();
+            List<Long> body = new ArrayList<>();
+            List<Long> total = new ArrayList<>();
+            List<Long> bytes = new ArrayList<>();
+            int failed = 0;
+            for (Record record : group) {
+                addPhase(dns, record.dns);
+                addPhase(connect, record.connect);
+                addPhase(tls, record.tls);
+                addPhase(ttfb, record.ttfb);
+                addPhase(body, record.body);
+                addPhase(total, record.total);
+                addPhase(bytes, record.responseBytes);
+                if (!record.success) {
+                    failed++;
+                }
+            }
+            builder.append(entry.getKey()).append('\n')
+                    .append("  requests ").append(group.size()).append(", failed ").append(failed).append('\n');
+            appendPhase(builder, "dns", dns, "ms");
+            appendPhase(builder, "connect", connect, "ms");
+            appendPhase(builder, "tls", tls, "ms");
+            appendPhase(builder, "ttfb", ttfb, "ms");
+            appendPhase(builder, "body", body, "ms");
+            appendPhase(builder, "total", total, "ms");
+            appendPhase(builder, "bytes", bytes, "B");
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static void addPhase(List<Long> values, long value) {
+        if (value >= 0) {
+            values.add(value);
+        }
+    }
+
+    private static void appendPhase(StringBuilder builder, String name, List<Long> values, String unit) {
+        if (values.isEmpty()) {
+            return;
+        }
+        Collections.sort(values);
+        builder.append(String.format(Locale.US, "  %-8s p50 %d%s, p95 %d%s (n=%d)%n", name,
+                percentile(values, 0.5), unit, percentile(values, 0.95), unit, values.size()));
+    }
+
+    static long percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static class Listener extends EventListener {
+        private final Context mContext;
+        private final String mType;
+        private Record mRecord;
+        private long mCallStart;
+        private long mDnsStart;
+        private long mConnectStart;
+        private long mTlsStart;
+        private long mRequestStart;
+        private long mBodyStart;
+
+        Listener(Context context, String type) {
+            mContext = context;
+            mType = type;
+        }
+
+        private long now() {
+            return SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            mCallStart = now();
+            mRecord = new Record(mType, call.request().url().host());
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            mDnsStart = now();
+        }
+
+        @Override
+        public void dnsEnd(@NonNull Call call, @NonNull String domainName,
+                @NonNull List<InetAddress> inetAddressList) {
+            mRecord.dns = now() - mDnsStart;
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                @NonNull Proxy proxy) {
+            mConnectStart = now();
+        }
+
+        @Override
+        public void secureConnectStart(@NonNull Call call) {
+            mTlsStart = now();
+        }
+
+        @Override
+        public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+            mRecord.tls = now() - mTlsStart;
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            mRecord.connect = now() - mConnectStart;
+        }
+
+        @Override
+        public void requestHeadersStart(@NonNull Call call) {
+            mRequestStart = now();
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            mRecord.requestBytes = byteCount;
+        }
+
+        @Override
+        public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+            mRecord.ttfb = now() - mRequestStart;
+        }
+
+        @Override
+        public void responseBodyStart(@NonNull Call call) {
+            mBodyStart = now();
+        }
+
+        @Override
+        public void responseBodyEnd(@NonNull Call call, long byteCount) {
+            mRecord.body = now() - mBodyStart;
+            mRecord.responseBytes = byteCount;
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            finish(true);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            finish(false);
+        }
+
+        private void finish(boolean success) {
+            if (mRecord == null) {
+                return;
+            }
+            mRecord.success = success;
+            mRecord.total = now() - mCallStart;
+            add(mRecord);
+            if (Settings.isEnableLogProvider(mContext)) {
+                LogDebugFileUtils.get().i(TAG, "%s", mRecord);
+            }
+            mRecord = null;
+        }
+    }
+}
@@ -96,4 +96,20 @@ public class NotificationUtils {
     public static void clearStartNotification(Context context) {
         NotificationManagerCompat.from(context).cancel(0x222);
     }
+
+    public static void showExportNotification(Context context, int done, int total) {
+        Notification notification = new NotificationCompat.Builder(context,
+                Constants.FOREGROUND_INTENT_SERVICE_NOTIFICATION_CHANNEL).setSmallIcon(
+                R.drawable.ic_notification)
+                .setOngoing(done < total)
+                .setOnlyAlertOnce(true)
+                .setProgress(total, done, false)
+                .setContentText(context.getString(R.string.save_all_wallpaper_progress, done, total))
+                .setContentTitle(context.getText(R.string.app_name)).build();
+        NotificationManagerCompat.from(context).notify(0x444, notification);
+    }
+
+    public static void clearExportNotification(Context context) {
+        NotificationManagerCompat.from(context).cancel(0x444);
+    }
 }
@@ -0,0 +1,305 @@
+package me.liaoheng.wallpaper.util;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * 断点续传下载，未完成的数据与ETag/Last-Modified保存在 .part/.meta 文件中，中断或进程重启后使用Range继续
+ * <p>
+ * A download holds a lock of its target in this process and a file lock on the .lock file for the other
+ * processes (main, background, live wallpaper), so only one of them appends to the part file.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 17:00
+ */
+public class ResumableDownloader {
+    private static final String PART = ".part";
+    private static final String META = ".meta";
+    private static final String LOCK = ".lock";
+    private static final String KEY_URL = "url";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "last_modified";
+    private static final String KEY_LENGTH = "length";
+
+    /**
+     * targets downloading in this process
+     */
+    private static final Set<String> ACTIVE = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private static final ConcurrentHashMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final OkHttpClient client;
+    private int maxAttempts = 5;
+    private boolean imageOnly;
+
+    public ResumableDownloader(OkHttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Attempts in one {@link #download(String, File)} call, an attempt that received nothing stops early
+     */
+    public ResumableDownloader setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Reject a response that is not an image before anything is written
+     */
+    public ResumableDownloader setImageOnly(boolean imageOnly) {
+        this.imageOnly = imageOnly;
+        return this;
+    }
+
+    private static Object getLock(File target) {
+        Object lock = new Object();
+        Object old = LOCKS.putIfAbsent(target.getPath(), lock);
+        return old == null ? lock : old;
+    }
+
+    @NonNull
+    public File download(String url, File target) throws IOException {
+        if (target.exists() && target.length() > 0) {
+            return target;
+        }
+        synchronized (getLock(target)) {
+            ACTIVE.add(target.getPath());
+            try (RandomAccessFile lock = new RandomAccessFile(target.getPath() + LOCK, "rw")) {
+                FileLock fileLock = lock.getChannel().lock();
+                try {
+                    // finished by another thread or process while waiting
+                    if (target.exists() && target.length() > 0) {
+                        return target;
+                    }
+                    return fetch(url, target);
+                } finally {
+                    fileLock.release();
+                }
+            } finally {
+                ACTIVE.remove(target.getPath());
+            }
+        }
+    }
+
+    /**
+     * Delete a file of a download unless the download runs in this or another process, the .lock file is kept
+     *
+     * @return true when deleted
+     */
+    public static boolean deleteIdle(File file) {
+        String path = file.getPath();
+        if (path.endsWith(LOCK)) {
+            return false;
+        }
+        if (path.endsWith(PART) || path.endsWith(META)) {
+            path = path.substring(0, path.lastIndexOf('.'));
+        }
+        if (ACTIVE.contains(path)) {
+            return false;
+        }
+        File lockFile = new File(path + LOCK);
+        if (!lockFile.exists()) {
+            return file.delete();
+        }
+        try (RandomAccessFile lock = new RandomAccessFile(lockFile, "rw")) {
+            FileLock fileLock = lock.getChannel().tryLock();
+            if (fileLock == null) {
+                return false;
+            }
+            try {
+                return file.delete();
+            } finally {
+                fileLock.release();
+            }
+        } catch (IOException | OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private File fetch(String url, File target) throws IOException {
+        File part = new File(target.getPath() + PART);
+        File meta = new File(target.getPath() + META);
+        IOException error = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            long before = part.length();
+            try {
+                if (attempt(url, part, meta)) {
+                    if (!part.renameTo(target)) {
+                        throw new IOException("download rename failure");
+                    }
+                    //noinspection ResultOfMethodCallIgnored
+                    meta.delete();
+                    return target;
+                }
+            } catch (HttpStatusException | InvalidImageException e) {
+                throw e;
+            } catch (IOException e) {
+                error = e;
+                if (part.length() <= before) {
+                    break;
+                }
+            }
+        }
+        throw error == null ? new IOException("download failure") : error;
+    }
+
+    /**
+     * @return true when the part file is complete
+     */
+    private boolean attempt(String url, File part, File meta) throws IOException {
+        Properties properties = readMeta(meta);
+        long offset = part.exists() ? part.length() : 0;
+        String validator = properties.getProperty(KEY_ETAG);
+        if (TextUtils.isEmpty(validator)) {
+            validator = properties.getProperty(KEY_LAST_MODIFIED);
+        }
+        boolean resume = offset > 0 && url.equals(properties.getProperty(KEY_URL)) && !TextUtils.isEmpty(validator);
+        if (offset > 0 && !resume) {
+            offset = 0;
+        }
+
+        Request.Builder builder = new Request.Builder().url(url).header("Accept-Encoding", "identity");
+        if (resume) {
+            builder.header("Range", "bytes=" + offset + "-").header("If-Range", validator);
+        }
+        try (Response response = client.newCall(builder.build()).execute()) {
+            ResponseBody body = response.body();
+            if (response.code() == 416 && resume) {
+                long length = parseLong(properties.getProperty(KEY_LENGTH));
+                if (length == offset) {
+                    return true;
+                }
+                truncate(part, meta);
+                throw new IOException("download range not satisfiable");
+            }
+            if (!response.isSuccessful() || body == null) {
+                throw new HttpStatusException(response.code());
+            }
+            if (imageOnly && !ImageValidator.isImageContentType(response.header("Content-Type"))) {
+                truncate(part, meta);
+                throw new InvalidImageException("not an image (" + response.header("Content-Type") + ") : " + url);
+            }
+            long length;
+            boolean append;
+            if (response.code() == 206) {
+                long start = parseRangeStart(response.header("Content-Range"));
+                if (start != offset) {
+                    truncate(part, meta);
+                    throw new IOException("download range mismatch");
+                }
+                length = parseRangeLength(response.header("Content-Range"));
+                append = true;
+            } else {
+                length = body.contentLength();
+                append = false;
+                Properties newMeta = new Properties();
+                newMeta.setProperty(KEY_URL, url);
+                newMeta.setProperty(KEY_ETAG, nullToEmpty(response.header("ETag")));
+                newMeta.setProperty(KEY_LAST_MODIFIED, nullToEmpty(response.header("Last-Modified")));
+                newMeta.setProperty(KEY_LENGTH, String.valueOf(length));
+                writeMeta(meta, newMeta);
+            }
+            write(body.byteStream(), part, append);
+            if (length >= 0 && part.length() != length) {
+                throw new IOException("download length mismatch: " + part.length() + "/" + length);
+            }
+            return true;
+        }
+    }
+
+    private void write(InputStream in, File part, boolean append) throws IOException {
+        try (OutputStream out = new FileOutputStream(part, append)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private void truncate(File part, File meta) {
+        //noinspection ResultOfMethodCallIgnored
+        part.delete();
+        //noinspection ResultOfMethodCallIgnored
+        meta.delete();
+    }
+
+    private Properties readMeta(File meta) {
+        Properties properties = new Properties();
+        if (!meta.exists()) {
+            return properties;
+        }
+        try (InputStream in = new FileInputStream(meta)) {
+            properties.load(in);
+        } catch (IOException ignored) {
+        }
+        return properties;
+    }
+
+    private void writeMeta(File meta, Properties properties) throws IOException {
+        try (OutputStream out = new FileOutputStream(meta)) {
+            properties.store(out, null);
+        }
+    }
+
+    /**
+     * bytes 100-199/200 -> 100
+     */
+    static long parseRangeStart(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int space = contentRange.indexOf(' ');
+        int dash = contentRange.indexOf('-');
+        if (space < 0 || dash < space) {
+            return -1;
+        }
+        return parseLong(contentRange.substring(space + 1, dash));
+    }
+
+    /**
+     * bytes 100-199/200 -> 200
+     */
+    static long parseRangeLength(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int slash = contentRange.indexOf('/');
+        if (slash < 0) {
+            return -1;
+        }
+        return parseLong(contentRange.substring(slash + 1));
+    }
+
+    private static long parseLong(String s) {
+        try {
+            return s == null ? -1 : Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -0,0 +1,237 @@
+package me.liaoheng.wallpaper.util;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.engine.GlideException;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import retrofit2.HttpException;
+
+/**
+ * Exponential backoff with jitter for {@link Observable#retryWhen(Function)}, replaces RetryWithDelay.
+ * <p>
+ * The retry count is kept per subscription, every retry also takes a token from the app wide {@link Budget}.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 14:05
+ */
+public class RetryPolicy implements Function<Observable<? extends Throwable>, Observable<?>> {
+
+    /**
+     * Retries allowed in the window across the whole process, stops retry storms when the network is down
+     */
+    public static class Budget {
+        private static final Budget DEFAULT = new Budget(20, TimeUnit.MINUTES.toMillis(1));
+
+        public static Budget get() {
+            return DEFAULT;
+        }
+
+        private final int max;
+        private final long window;
+        private final ArrayDeque<Long> retries = new ArrayDeque<>();
+
+        public Budget(int max, long windowMillis) {
+            this.max = max;
+            this.window = windowMillis;
+        }
+
+        public synchronized boolean tryAcquire(long now) {
+            while (!retries.isEmpty() && now - retries.peekFirst() >= window) {
+                retries.pollFirst();
+            }
+            if (retries.size() >= max) {
+                return false;
+            }
+            retries.addLast(now);
+            return true;
+        }
+    }
+
+    public static class Builder {
+        private int maxRetries = 3;
+        private long initialDelay = TimeUnit.SECONDS.toMillis(1);
+        private long maxDelay = TimeUnit.MINUTES.toMillis(1);
+        private double multiplier = 2;
+        private double jitter = 0.5;
+        private Scheduler scheduler = Schedulers.computation();
+        private Budget budget = Budget.get();
+        private Random random = new Random();
+
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public Builder initialDelay(long delay, TimeUnit unit) {
+            this.initialDelay = unit.toMillis(delay);
+            return this;
+        }
+
+        public Builder maxDelay(long delay, TimeUnit unit) {
+            this.maxDelay = unit.toMillis(delay);
+            return this;
+        }
+
+        public Builder multiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * @param jitter 0..1, part of the delay that is randomized
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        public Builder scheduler(Scheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public Builder budget(Budget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        public Builder random(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    public static RetryPolicy create(int maxRetries, long initialDelay, TimeUnit unit) {
+        return new Builder().maxRetries(maxRetries).initialDelay(initialDelay, unit).build();
+    }
+
+    private final int maxRetries;
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double multiplier;
+    private final double jitter;
+    private final Scheduler scheduler;
+    private final Budget budget;
+    private final Random random;
+
+    private RetryPolicy(Builder builder) {
+        maxRetries = builder.maxRetries;
+        initialDelay = builder.initialDelay;
+        maxDelay = builder.maxDelay;
+        multiplier = builder.multiplier;
+        jitter = builder.jitter;
+        scheduler = builder.scheduler;
+        budget = builder.budget;
+        random = builder.random;
+    }
+
+    @Override
+    public Observable<?> apply(final Observable<? extends Throwable> attempts) {
+        AtomicInteger retryCount = new AtomicInteger();
+        return attempts.flatMap((Function<Throwable, Observable<?>>) throwable -> {
+            int retry = retryCount.getAndIncrement();
+            if (!canRetry(throwable, retry)) {
+                return Observable.error(throwable);
+            }
+            return Observable.timer(getDelay(retry), TimeUnit.MILLISECONDS, scheduler);
+        });
+    }
+
+    /**
+     * Blocking version for workers and services that are already off the main thread.
+     */
+    public <T> T execute(Callable<T> callable) throws Exception {
+        int retry = 0;
+        while (true) {
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                if (!canRetry(e, retry)) {
+                    throw e;
+                }
+                Thread.sleep(getDelay(retry));
+                retry++;
+            }
+        }
+    }
+
+    private boolean canRetry(Throwable throwable, int retry) {
+        return retry < maxRetries && isRetryable(throwable) && budget.tryAcquire(
+                scheduler.now(TimeUnit.MILLISECONDS));
+    }
+
+    long getDelay(int retry) {
+        double delay = Math.min(maxDelay, initialDelay * Math.pow(multiplier, retry));
+        delay -= delay * jitter * random.nextDouble();
+        return (long) delay;
+    }
+
+    /**
+     * timeout, connect and 5xx retry, 4xx and parse errors do not
+     */
+    public static boolean isRetryable(@NonNull Throwable throwable) {
+        boolean io = false;
+        for (Throwable e = throwable; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof HttpStatusException) {
+                return isRetryable(((HttpStatusException) e).getCode());
+            }
+            if (e instanceof HttpException) {
+                return isRetryable(((HttpException) e).code());
+            }
+            if (e instanceof com.bumptech.glide.load.HttpException) {
+                int code = ((com.bumptech.glide.load.HttpException) e).getStatusCode();
+                return code == com.bumptech.glide.load.HttpException.UNKNOWN || isRetryable(code);
+            }
+            if (e instanceof JsonParseException || e instanceof MalformedJsonException) {
+                return false;
+            }
+            if (e instanceof InvalidImageException) {
+                return false;
+            }
+            if (e instanceof LockSetWallpaperException) {
+                return false;
+            }
+            if (e instanceof GlideException) {
+                for (Throwable cause : ((GlideException) e).getRootCauses()) {
+                    if (isRetryable(cause)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (e instanceof SocketTimeoutException || e instanceof ConnectException
+                    || e instanceof UnknownHostException || e instanceof NoRouteToHostException) {
+                return true;
+            }
+            if (e instanceof IOException) {
+                io = true;
+            }
+        }
+        return io;
+    }
+
+    private static boolean isRetryable(int code) {
+        return code >= 500 || code == 408 || code == 429;
+    }
+}
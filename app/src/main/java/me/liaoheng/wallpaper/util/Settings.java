@@ -75,6 +75,14 @@ public class Settings {
         return names[Integer.parseInt(Objects.requireNonNull(resolution))];
     }
 
+    /**
+     * @return MB
+     */
+    public static long getCacheQuota(Context context) {
+        return Long.parseLong(SettingTrayPreferences.get(context)
+                .getString(SettingsActivity.PREF_CACHE_QUOTA, "100"));
+    }
+
     public static int getAutoModeValue(Context context) {
         return Integer.parseInt(SettingTrayPreferences.get(context)
                 .getString(SettingsActivity.PREF_SET_WALLPAPER_AUTO_MODE, "0"));
@@ -235,6 +243,24 @@ public class Settings {
         return SettingTrayPreferences.get(context).getString(Constants.PREF_LAST_WALLPAPER_IMAGE_URL, "");
     }
 
+    public static void setLastWallpaperAppliedKey(Context context, String key) {
+        SettingTrayPreferences.get(context).put(Constants.PREF_LAST_WALLPAPER_APPLIED_KEY, key);
+    }
+
+    public static String getLastWallpaperAppliedKey(Context context) {
+        return SettingTrayPreferences.get(context).getString(Constants.PREF_LAST_WALLPAPER_APPLIED_KEY, "");
+    }
+
+    public static int increaseSetWallpaperSkipCount(Context context) {
+        int count = getSetWallpaperSkipCount(context) + 1;
+        SettingTrayPreferences.get(context).put(Constants.PREF_SET_WALLPAPER_SKIP_COUNT, count);
+        return count;
+    }
+
+    public static int getSetWallpaperSkipCount(Context context) {
+        return SettingTrayPreferences.get(context).getInt(Constants.PREF_SET_WALLPAPER_SKIP_COUNT, 0);
+    }
+
     @IntDef(value = {
             NONE,
             GOOGLE_SERVICE,
@@ -0,0 +1,149 @@
+package me.liaoheng.wallpaper.util;
+
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.commit451.nativestackblur.NativeStackBlur;
+import com.github.liaoheng.common.util.L;
+
+/**
+ * 大半径模糊先缩小再模糊再放大，缩小倍数由半径决定，细节本来就会被模糊掉
+ * <p>
+ * The factor keeps at least {@link #MIN_SCALED_RADIUS} pixels of radius on the small copy, below that the
+ * rounding of the radius and the bilinear upscale show. The copy is made by halving, every step averages 2x2
+ * pixels, a single bilinear step of 4x or 8x skips pixels and aliases fine detail (text, checkerboard).
+ * StackBlurEngineBenchmarkTest calibrates the factor on a photo-like and a high-contrast fixture, the mean
+ * error against the full resolution blur stays within {@link #MAX_MEAN_ERROR} on both.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 21:50
+ */
+public class StackBlurEngine {
+    private static final String TAG = StackBlurEngine.class.getSimpleName();
+
+    static final int MIN_SCALED_RADIUS = 12;
+    static final int MAX_FACTOR = 8;
+    /**
+     * mean absolute error per channel, 0-255
+     */
+    static final float MAX_MEAN_ERROR = 2f;
+
+    public interface Blur {
+        /**
+         * @return a new blurred bitmap, the input is left as it is
+         */
+        @NonNull
+        Bitmap process(@NonNull Bitmap bitmap, int radius);
+    }
+
+    /**
+     * Used from the io pool and the live wallpaper thread, created once by the class loader
+     */
+    private static class Holder {
+        static final StackBlurEngine ENGINE = new StackBlurEngine(new NativeBlur());
+    }
+
+    public static StackBlurEngine get() {
+        return Holder.ENGINE;
+    }
+
+    /**
+     * The native library, {@link JavaStackBlur} once it fails to load
+     */
+    private static class NativeBlur implements Blur {
+        private final JavaStackBlur mFallback = new JavaStackBlur();
+        private volatile boolean mUnavailable;
+
+        @NonNull
+        @Override
+        public Bitmap process(@NonNull Bitmap bitmap, int radius) {
+            if (!mUnavailable) {
+                try {
+                    Bitmap blur = NativeStackBlur.process(bitmap, radius);
+                    if (blur != null) {
+                        return blur;
+                    }
+                } catch (LinkageError e) {
+                    mUnavailable = true;
+                    L.alog().w(TAG, e, "native blur unavailable, use java");
+                }
+            }
+            return mFallback.process(bitmap, radius);
+        }
+    }
+
+    private final Blur mBlur;
+
+    public StackBlurEngine(Blur blur) {
+        mBlur = blur;
+    }
+
+    /**
+     * Downscale factor for the radius, 1 when the radius is too small for the shortcut
+     */
+    static int getFactor(int radius) {
+        int factor = 1;
+        while (factor * 2 <= MAX_FACTOR && radius / (factor * 2) >= MIN_SCALED_RADIUS) {
+            factor *= 2;
+        }
+        return factor;
+    }
+
+    @NonNull
+    public Bitmap process(@NonNull Bitmap bitmap, int radius) {
+        return process(bitmap, radius, getFactor(radius));
+    }
+
+    @NonNull
+    Bitmap process(@NonNull Bitmap bitmap, int radius, int factor) {
+        long start = SystemClock.elapsedRealtime();
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        Bitmap result;
+        if (factor <= 1) {
+            result = mBlur.process(bitmap, radius);
+        } else {
+            Bitmap small = bitmap;
+            for (int step = factor; step > 1; step /= 2) {
+                Bitmap half = Bitmap.createScaledBitmap(small, Math.max(1, small.getWidth() / 2),
+                        Math.max(1, small.getHeight() / 2), true);
+                if (small != bitmap && small != half) {
+                    small.recycle();
+                }
+                small = half;
+            }
+            Bitmap blurred = mBlur.process(small, Math.max(1, Math.round(radius / (float) factor)));
+            if (small != bitmap) {
+                small.recycle();
+            }
+            result = Bitmap.createScaledBitmap(blurred, width, height, true);
+            if (blurred != result) {
+                blurred.recycle();
+            }
+        }
+        L.alog().d(TAG, "blur %dx%d radius %d factor %d, %d ms, peak %d KB", width, height, radius, factor,
+                SystemClock.elapsedRealtime() - start, getPeakBytes(bitmap, factor) / 1024);
+        return result;
+    }
+
+    /**
+     * Bytes of the bitmaps alive at the same time while blurring the bitmap with the factor, the largest of
+     * every step
+     */
+    static long getPeakBytes(@NonNull Bitmap bitmap, int factor) {
+        long bytes = bitmap.getAllocationByteCount();
+        if (factor <= 1) {
+            return bytes * 2;
+        }
+        long small = bytes / ((long) factor * factor);
+        // the input, the copy being halved and its half, the first step halves the input itself
+        long halving = bytes + bytes / 4 + (factor >= 4 ? bytes / 16 : 0);
+        // the input, the small copy and its blur
+        long blur = bytes + small * 2;
+        // the input, the small blur and the full size result
+        long upscale = bytes * 2 + small;
+        return Math.max(halving, Math.max(blur, upscale));
+    }
+}
@@ -1,16 +1,13 @@
 package me.liaoheng.wallpaper.util;
 
 import android.content.Context;
-import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.media.ThumbnailUtils;
 import android.os.Build;
 import android.util.DisplayMetrics;
 
 import androidx.annotation.NonNull;
 
 import com.github.liaoheng.common.util.AppUtils;
-import com.github.liaoheng.common.util.BitmapUtils;
 import com.github.liaoheng.common.util.ROM;
 
 import java.io.File;
@@ -32,7 +29,7 @@ public class UIHelper implements IUIHelper {
         //if (WallpaperUtils.isNotSupportedWallpaper(context)) {
         //    throw new IOException("This device not support wallpaper");
         //}
-        WallpaperImage image = WallpaperUtils.getImageStackBlurFile(config, wallpaper, url);
+        WallpaperImage image = WallpaperUtils.getImageStackBlurFile(context, config, wallpaper, url);
         int mode = config.getWallpaperMode();
         if (ROM.getROM().isMiui()) {
             MiuiHelper.setWallpaper(context, mode, image);
@@ -108,19 +105,7 @@ public class UIHelper implements IUIHelper {
             isCrop = true;
         }
         if (isCrop) {
-            String key = BingWallpaperUtils.createKey(url + "_thumbnail");
-            File wallpaperFile = CacheUtils.get().get(key);
-            if (wallpaperFile == null) {
-                Bitmap newBitmap = ThumbnailUtils.extractThumbnail(
-                        BitmapFactory.decodeFile(wallpaper.getAbsolutePath()),
-                        width, height, ThumbnailUtils.OPTIONS_RECYCLE_INPUT);
-                if (newBitmap != null) {
-                    wallpaper = CacheUtils.get().put(key, BitmapUtils.bitmapToStream(newBitmap,
-                            Bitmap.CompressFormat.JPEG));
-                }
-            } else {
-                wallpaper = wallpaperFile;
-            }
+            wallpaper = WallpaperPipeline.with(context, wallpaper, url).crop(width, height).get();
         }
         return wallpaper;
     }
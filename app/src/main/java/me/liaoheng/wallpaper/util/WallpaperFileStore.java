@@ -0,0 +1,209 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.os.Process;
+import android.system.ErrnoException;
+import android.system.Os;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.FileUtils;
+import com.github.liaoheng.common.util.L;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 壁纸文件存储，按图片(urlbase+分辨率)命名，文件写入后不再修改，取代固定的wallpaper.w
+ * <p>
+ * Files are written to a temp file and renamed, hard linked when possible. A file is not trimmed while it is
+ * acquired in this process or was used recently, other processes only see the same immutable files.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 16:30
+ */
+public class WallpaperFileStore {
+    private static final String TAG = WallpaperFileStore.class.getSimpleName();
+    static final String WALLPAPER_DIR = "wallpaper";
+    static final String SHARE_DIR = "share";
+    private static final int MAX_WALLPAPER_FILES = 8;
+    private static final int MAX_SHARE_FILES = 3;
+    private static final long KEEP_RECENT = TimeUnit.MINUTES.toMillis(30);
+
+    private static final Map<String, Integer> REFERENCES = new HashMap<>();
+    @Nullable
+    private static File sShared;
+
+    /**
+     * Stable file of the image, the source is only copied the first time.
+     *
+     * @param url image url, contains urlbase and resolution, named by {@link WallpaperIdentity#getKey(String)}
+     */
+    @NonNull
+    public static File put(Context context, String url, File source) throws IOException {
+        File dir = FileUtils.getProjectSpaceCacheDirectory(context, WALLPAPER_DIR);
+        File file = store(dir, getName(url), source);
+        trim(dir, MAX_WALLPAPER_FILES);
+        return file;
+    }
+
+    /**
+     * Stored file of the image url, null when it has not been stored yet
+     */
+    @Nullable
+    public static File get(Context context, String url) {
+        File dir = FileUtils.getProjectSpaceCacheDirectory(context, WALLPAPER_DIR);
+        File file = new File(dir, getName(url));
+        if (!file.exists()) {
+            DiskCacheQuota.miss(DiskCacheQuota.AREA_WALLPAPER);
+            return null;
+        }
+        if (!ImageValidator.isValid(file)) {
+            L.alog().w(TAG, "invalid file : %s", file.getName());
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            DiskCacheQuota.miss(DiskCacheQuota.AREA_WALLPAPER);
+            return null;
+        }
+        DiskCacheQuota.hit(DiskCacheQuota.AREA_WALLPAPER);
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Share directory is the one exposed by the FileProvider
+     */
+    @NonNull
+    public static File putShare(Context context, File source) throws IOException {
+        File dir = FileUtils.getProjectSpaceCacheDirectory(context, SHARE_DIR);
+        File file = store(dir, BingWallpaperUtils.createKey(source.getAbsolutePath()) + "."
+                + DerivativeEncoder.getExtension(source), source);
+        trim(dir, MAX_SHARE_FILES);
+        return file;
+    }
+
+    private static String getName(String url) {
+        return BingWallpaperUtils.createKey(WallpaperIdentity.getKey(url)) + ".jpg";
+    }
+
+    private static File store(File dir, String name, File source) throws IOException {
+        File file = new File(dir, name);
+        if (file.exists() && file.length() == source.length()) {
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return file;
+        }
+        File temp = new File(dir, name + "." + Process.myPid() + "." + Thread.currentThread().getId() + ".tmp");
+        //noinspection ResultOfMethodCallIgnored
+        temp.delete();
+        try {
+            Os.link(source.getAbsolutePath(), temp.getAbsolutePath());
+        } catch (ErrnoException e) {
+            copy(source, temp);
+        }
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("wallpaper store rename failure : " + name);
+        }
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    private static void copy(File source, File target) throws IOException {
+        try (FileChannel in = new FileInputStream(source).getChannel();
+                FileChannel out = new FileOutputStream(target).getChannel()) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    /**
+     * Keep the file while it is in use, must be paired with {@link #release(File)}
+     */
+    public static void acquire(File file) {
+        if (file == null) {
+            return;
+        }
+        synchronized (REFERENCES) {
+            String path = file.getAbsolutePath();
+            Integer count = REFERENCES.get(path);
+            REFERENCES.put(path, count == null ? 1 : count + 1);
+        }
+    }
+
+    public static void release(File file) {
+        if (file == null) {
+            return;
+        }
+        synchronized (REFERENCES) {
+            String path = file.getAbsolutePath();
+            Integer count = REFERENCES.get(path);
+            if (count == null || count <= 1) {
+                REFERENCES.remove(path);
+            } else {
+                REFERENCES.put(path, count - 1);
+            }
+        }
+    }
+
+    /**
+     * Keep the file handed to the share target acquired, the previous one is released
+     */
+    public static void setShared(File file) {
+        synchronized (REFERENCES) {
+            acquire(file);
+            release(sShared);
+            sShared = file;
+        }
+    }
+
+    static boolean isAcquired(File file) {
+        synchronized (REFERENCES) {
+            return REFERENCES.containsKey(file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Acquired in this process, or used within {@link #KEEP_RECENT} by any process
+     */
+    static boolean isInUse(File file) {
+        return isAcquired(file) || System.currentTimeMillis() - file.lastModified() < KEEP_RECENT;
+    }
+
+    private static void trim(File dir, int max) {
+        File[] files = dir.listFiles();
+        if (files == null || files.length <= max) {
+            return;
+        }
+        Arrays.sort(files, (o1, o2) -> Long.compare(o2.lastModified(), o1.lastModified()));
+        long now = System.currentTimeMillis();
+        synchronized (REFERENCES) {
+            for (int i = max; i < files.length; i++) {
+                File file = files[i];
+                if (REFERENCES.containsKey(file.getAbsolutePath())) {
+                    continue;
+                }
+                if (now - file.lastModified() < KEEP_RECENT) {
+                    continue;
+                }
+                if (!file.delete()) {
+                    L.alog().w(TAG, "trim failure : %s", file.getName());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package me.liaoheng.wallpaper.util;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 图片标识，去掉域名的url路径，不同域名(www/global)的同一张图片只下载与处理一次
+ * <p>
+ * The key only depends on the url, so every process and every restart maps it to the same download, stored
+ * file and cache entry. Bing's hsh is not used for it, it is the same for every resolution of an image and is
+ * not a digest of the downloaded bytes, so it neither tells renditions apart nor verifies a download.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 19:50
+ */
+public class WallpaperIdentity {
+    /**
+     * Identity of the image url, used for the download and every derived cache entry.
+     * <p>
+     * https://www.bing.com/th?id=OHR.Name_ZH-CN123_1920x1080.jpg -> /th?id=OHR.Name_ZH-CN123_1920x1080.jpg
+     */
+    @NonNull
+    public static String getKey(String url) {
+        if (TextUtils.isEmpty(url)) {
+            return "";
+        }
+        return stripHost(url);
+    }
+
+    static String stripHost(String url) {
+        int scheme = url.indexOf("://");
+        if (scheme < 0) {
+            return url;
+        }
+        int path = url.indexOf('/', scheme + 3);
+        return path < 0 ? "" : url.substring(path);
+    }
+}
@@ -0,0 +1,452 @@
+package me.liaoheng.wallpaper.util;
+
+import android.app.WallpaperManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.media.ThumbnailUtils;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.L;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 衍生图片的处理管线(裁剪，缩小，模糊，水印，变暗)，只解码一次，所有操作作用在同一张图片上，只编码一次
+ * <p>
+ * The cache key of a result is the wallpaper identity plus the keys of the operations that made it, so every
+ * prefix of a pipeline has its own key. Operations marked with {@link #cache()} store their result as well, a
+ * later pipeline starting with the same operations decodes that entry instead of the source. The share
+ * pipeline (blur, watermark) reuses the blur of the set wallpaper this way.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 23:10
+ */
+public class WallpaperPipeline {
+    private static final String TAG = WallpaperPipeline.class.getSimpleName();
+
+    abstract static class Operation {
+        boolean cache;
+
+        abstract String getKey();
+
+        /**
+         * Kind of the result in {@link DerivativeEncoder}, null keeps the kind of the previous operation
+         */
+        @Nullable
+        String getKind() {
+            return null;
+        }
+
+        /**
+         * Size the source is decoded to when this is the first operation, null for the full size
+         */
+        @Nullable
+        int[] getDecodeSize() {
+            return null;
+        }
+
+        /**
+         * Draws on the bitmap, it is decoded mutable when this is the first operation
+         */
+        boolean isInPlace() {
+            return false;
+        }
+
+        /**
+         * @param sourceWidth width of the source file, an intermediate entry may be smaller
+         * @return the result, the input is recycled when it is replaced
+         */
+        @NonNull
+        abstract Bitmap apply(@NonNull Context context, @NonNull Bitmap bitmap, int sourceWidth);
+    }
+
+    /**
+     * Covers the size, never scaled up
+     */
+    static class Downscale extends Operation {
+        private final int width;
+        private final int height;
+
+        Downscale(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        String getKey() {
+            return "down" + width + "x" + height;
+        }
+
+        @Override
+        String getKind() {
+            return DerivativeEncoder.KIND_RENDITION;
+        }
+
+        @Override
+        int[] getDecodeSize() {
+            return new int[] { width, height };
+        }
+
+        @NonNull
+        @Override
+        Bitmap apply(@NonNull Context context, @NonNull Bitmap bitmap, int sourceWidth) {
+            float scale = BitmapDecoder.getScale(bitmap.getWidth(), bitmap.getHeight(), width, height);
+            int targetWidth = (int) Math.ceil(bitmap.getWidth() * scale);
+            int targetHeight = (int) Math.ceil(bitmap.getHeight() * scale);
+            if (targetWidth >= bitmap.getWidth() && targetHeight >= bitmap.getHeight()) {
+                return bitmap;
+            }
+            Bitmap scaled = Bitmap.createScaledBitmap(bitmap, targetWidth, targetHeight, true);
+            if (scaled != bitmap) {
+                bitmap.recycle();
+            }
+            return scaled;
+        }
+    }
+
+    /**
+     * Scaled to cover the size and cropped at the center
+     */
+    static class Crop extends Operation {
+        private final int width;
+        private final int height;
+
+        Crop(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        String getKey() {
+            return "crop" + width + "x" + height;
+        }
+
+        @Override
+        String getKind() {
+            return DerivativeEncoder.KIND_THUMBNAIL;
+        }
+
+        @Override
+        int[] getDecodeSize() {
+            return new int[] { width, height };
+        }
+
+        @NonNull
+        @Override
+        Bitmap apply(@NonNull Context context, @NonNull Bitmap bitmap, int sourceWidth) {
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                return bitmap;
+            }
+            Bitmap crop = ThumbnailUtils.extractThumbnail(bitmap, width, height,
+                    ThumbnailUtils.OPTIONS_RECYCLE_INPUT);
+            return crop == null ? bitmap : crop;
+        }
+    }
+
+    /**
+     * The radius is for the source size, scaled with the bitmap so the blur looks the same
+     */
+    static class Blur extends Operation {
+        private final int radius;
+
+        Blur(int radius) {
+            this.radius = radius;
+        }
+
+        @Override
+        String getKey() {
+            return "blur" + radius;
+        }
+
+        @Override
+        String getKind() {
+            return DerivativeEncoder.KIND_BLUR;
+        }
+
+        @NonNull
+        @Override
+        Bitmap apply(@NonNull Context context, @NonNull Bitmap bitmap, int sourceWidth) {
+            return blur(bitmap, radius, sourceWidth);
+        }
+
+        @NonNull
+        static Bitmap blur(@NonNull Bitmap bitmap, int radius, int sourceWidth) {
+            int scaled = radius;
+            if (sourceWidth > bitmap.getWidth()) {
+                scaled = Math.max(1, Math.round(radius * bitmap.getWidth() / (float) sourceWidth));
+            }
+            Bitmap blur = StackBlurEngine.get().process(bitmap, scaled);
+            if (blur != bitmap) {
+                bitmap.recycle();
+            }
+            return blur;
+        }
+    }
+
+    static class Watermark extends Operation {
+        private final String text;
+
+        Watermark(String text) {
+            this.text = text;
+        }
+
+        @Override
+        String getKey() {
+            return "mark" + text;
+        }
+
+        @Override
+        String getKind() {
+            return DerivativeEncoder.KIND_MARK;
+        }
+
+        @Override
+        boolean isInPlace() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        Bitmap apply(@NonNull Context context, @NonNull Bitmap bitmap, int sourceWidth) {
+            bitmap = toMutable(bitmap);
+            WatermarkRenderer.draw(context, bitmap, text);
+            return bitmap;
+        }
+    }
+
+    /**
+     * Black at the alpha (0-255) over the image
+     */
+    static class Dim extends Operation {
+        private final int alpha;
+
+        Dim(int alpha) {
+            this.alpha = alpha;
+        }
+
+        @Override
+        String getKey() {
+            return "dim" + alpha;
+        }
+
+        @Override
+        boolean isInPlace() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        Bitmap apply(@NonNull Context context, @NonNull Bitmap bitmap, int sourceWidth) {
+            bitmap = toMutable(bitmap);
+            new Canvas(bitmap).drawColor(Color.argb(alpha, 0, 0, 0));
+            return bitmap;
+        }
+    }
+
+    static Bitmap toMutable(Bitmap bitmap) {
+        if (bitmap.isMutable()) {
+            return bitmap;
+        }
+        Bitmap copy = bitmap.copy(Bitmap.Config.ARGB_8888, true);
+        bitmap.recycle();
+        return copy;
+    }
+
+    private final Context mContext;
+    private final File mSource;
+    private final String mUrl;
+    private final List<Operation> mOperations = new ArrayList<>();
+
+    private WallpaperPipeline(Context context, File source, String url) {
+        mContext = context;
+        mSource = source;
+        mUrl = url;
+    }
+
+    public static WallpaperPipeline with(@NonNull Context context, @NonNull File source, @NonNull String url) {
+        return new WallpaperPipeline(context, source, url);
+    }
+
+    /**
+     * Covers the size the system wallpaper wants, the same in every orientation. Without it, a square of the
+     * longer screen side covers both orientations.
+     */
+    public WallpaperPipeline wallpaperSize() {
+        WallpaperManager manager = WallpaperManager.getInstance(mContext);
+        int width = manager == null ? 0 : manager.getDesiredMinimumWidth();
+        int height = manager == null ? 0 : manager.getDesiredMinimumHeight();
+        if (width <= 0 || height <= 0) {
+            DisplayMetrics size = BingWallpaperUtils.getSysResolution(mContext);
+            width = height = Math.max(size.widthPixels, size.heightPixels);
+        }
+        return downscale(width, height);
+    }
+
+    public WallpaperPipeline downscale(int width, int height) {
+        if (width > 0 && height > 0) {
+            mOperations.add(new Downscale(width, height));
+        }
+        return this;
+    }
+
+    public WallpaperPipeline crop(int width, int height) {
+        if (width > 0 && height > 0) {
+            mOperations.add(new Crop(width, height));
+        }
+        return this;
+    }
+
+    public WallpaperPipeline blur(int radius) {
+        if (radius > 0) {
+            mOperations.add(new Blur(radius));
+        }
+        return this;
+    }
+
+    /**
+     * Blur a bitmap decoded from the source the same as {@link #blur(int)} does, for a preview that is not
+     * cached. The bitmap is recycled when it is replaced.
+     */
+    @NonNull
+    public static Bitmap blur(@NonNull File source, @NonNull Bitmap bitmap, int radius) {
+        if (radius <= 0) {
+            return bitmap;
+        }
+        return Blur.blur(bitmap, radius, getWidth(source));
+    }
+
+    public WallpaperPipeline watermark(String text) {
+        mOperations.add(new Watermark(text));
+        return this;
+    }
+
+    public WallpaperPipeline dim(int alpha) {
+        if (alpha > 0) {
+            mOperations.add(new Dim(Math.min(alpha, 255)));
+        }
+        return this;
+    }
+
+    /**
+     * Store the result of the operations so far as well, the last result is always stored
+     */
+    public WallpaperPipeline cache() {
+        if (!mOperations.isEmpty()) {
+            mOperations.get(mOperations.size() - 1).cache = true;
+        }
+        return this;
+    }
+
+    /**
+     * Cache key of the result after the operation at the index
+     */
+    String getKey(int index) {
+        StringBuilder key = new StringBuilder(WallpaperIdentity.getKey(mUrl));
+        for (int i = 0; i <= index; i++) {
+            key.append('_').append(mOperations.get(i).getKey());
+        }
+        return key.toString();
+    }
+
+    String getKind(int index) {
+        for (int i = index; i >= 0; i--) {
+            String kind = mOperations.get(i).getKind();
+            if (kind != null) {
+                return kind;
+            }
+        }
+        return DerivativeEncoder.KIND_RENDITION;
+    }
+
+    private boolean isStored(int index) {
+        return index == mOperations.size() - 1 || mOperations.get(index).cache;
+    }
+
+    /**
+     * The cached result, or the result made from the longest cached prefix. The source when there is nothing
+     * to do or it can not be decoded.
+     */
+    @NonNull
+    public File get() {
+        int last = mOperations.size() - 1;
+        if (last < 0) {
+            return mSource;
+        }
+        File from = mSource;
+        int start = 0;
+        for (int i = last; i >= 0; i--) {
+            if (!isStored(i)) {
+                continue;
+            }
+            File file = DerivativeEncoder.get(getKey(i), getKind(i));
+            if (file != null && file.exists()) {
+                if (i == last) {
+                    DiskCacheQuota.hit(DiskCacheQuota.AREA_DERIVATIVE);
+                    return file;
+                }
+                from = file;
+                start = i + 1;
+                break;
+            }
+        }
+        DiskCacheQuota.miss(DiskCacheQuota.AREA_DERIVATIVE);
+        long time = SystemClock.elapsedRealtime();
+        Bitmap bitmap = render(from, start, true);
+        if (bitmap == null) {
+            return mSource;
+        }
+        File file = DerivativeEncoder.put(getKey(last), getKind(last), bitmap);
+        bitmap.recycle();
+        L.alog().d(TAG, "%s from %s, %d ms", getKey(last), start == 0 ? "source" : getKey(start - 1),
+                SystemClock.elapsedRealtime() - time);
+        return file == null ? mSource : file;
+    }
+
+    /**
+     * Decode once and apply the operations from the start index
+     *
+     * @param store put the results of the operations marked with {@link #cache()} into the cache
+     */
+    @Nullable
+    Bitmap render(File from, int start, boolean store) {
+        Operation first = mOperations.get(start);
+        int[] size = first.getDecodeSize();
+        Bitmap bitmap = BitmapDecoder.decode(from, size == null ? 0 : size[0], size == null ? 0 : size[1],
+                first.isInPlace() ? BitmapDecoder.USE_EDIT : BitmapDecoder.USE_PROCESS);
+        if (bitmap == null) {
+            return null;
+        }
+        int sourceWidth = getWidth(mSource);
+        int last = mOperations.size() - 1;
+        for (int i = start; i <= last; i++) {
+            Operation operation = mOperations.get(i);
+            long time = SystemClock.elapsedRealtime();
+            long input = bitmap.getAllocationByteCount();
+            Bitmap result = operation.apply(mContext, bitmap, sourceWidth);
+            long peak = result == bitmap ? input : input + result.getAllocationByteCount();
+            bitmap = result;
+            L.alog().d(TAG, "%s %d ms, peak %d KB", operation.getKey(), SystemClock.elapsedRealtime() - time,
+                    peak / 1024);
+            if (store && i < last && mOperations.get(i).cache) {
+                DerivativeEncoder.put(getKey(i), getKind(i), bitmap);
+            }
+        }
+        return bitmap;
+    }
+
+    private static int getWidth(File file) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        return options.outWidth;
+    }
+}
@@ -0,0 +1,313 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.github.liaoheng.common.util.L;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import me.liaoheng.wallpaper.model.Config;
+import me.liaoheng.wallpaper.model.Wallpaper;
+
+/**
+ * 一次设置壁纸需要的所有图片(设置/保存)只下载一次最大的源图，较小的设置分辨率在本地缩放得到。
+ * 锁屏裁剪与模糊本身就是从设置的图片在本地生成，不需要额外的源图。
+ * <p>
+ * Only the set rendition is ever derived. The save rendition goes to the gallery under Bing's file name, so it
+ * is always the file Bing served and never a re-encode of another resolution.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 17:30
+ */
+public class WallpaperRenditionPlanner {
+    private static final String TAG = WallpaperRenditionPlanner.class.getSimpleName();
+    private static final String UHD = "UHD";
+    private static final int UHD_WIDTH = 3840;
+    private static final int UHD_HEIGHT = 2160;
+    /**
+     * 1366x768 and 1920x1080 are both 16:9
+     */
+    private static final float ASPECT_TOLERANCE = 0.01f;
+
+    /**
+     * Which source resolution every rendition comes from
+     */
+    public static class Plan {
+        public final String set;
+        @Nullable
+        public final String save;
+        /**
+         * resolutions to fetch, one or two
+         */
+        public final List<String> sources = new ArrayList<>();
+        private final Map<String, String> mFrom = new HashMap<>();
+
+        Plan(String set, @Nullable String save) {
+            this.set = set;
+            this.save = save;
+        }
+
+        /**
+         * @return the source resolution the rendition is fetched or derived from
+         */
+        public String getSource(String resolution) {
+            return mFrom.get(resolution);
+        }
+
+        public boolean isDerived(String resolution) {
+            return !resolution.equals(getSource(resolution));
+        }
+    }
+
+    public static class Result {
+        public File set;
+        @Nullable
+        public File save;
+        public String saveUrl;
+        public long fetchedBytes;
+        public int derived;
+    }
+
+    /**
+     * @param save save resolution, null: auto save is off
+     */
+    @NonNull
+    public static Plan plan(@NonNull String set, @Nullable String save) {
+        Plan plan = new Plan(set, save);
+        if (save == null || save.equals(set)) {
+            plan.sources.add(set);
+            plan.mFrom.put(set, set);
+            return plan;
+        }
+        int[] setSize = parse(set);
+        int[] saveSize = parse(save);
+        if (setSize == null || saveSize == null || !sameAspect(setSize, saveSize) || saveSize[0] < setSize[0]) {
+            plan.sources.add(set);
+            plan.sources.add(save);
+            plan.mFrom.put(set, set);
+            plan.mFrom.put(save, save);
+            return plan;
+        }
+        plan.sources.add(save);
+        plan.mFrom.put(set, save);
+        plan.mFrom.put(save, save);
+        return plan;
+    }
+
+    /**
+     * 1920x1080 -> [1920, 1080], UHD -> [3840, 2160]
+     */
+    @Nullable
+    static int[] parse(String resolution) {
+        if (UHD.equals(resolution)) {
+            return new int[] { UHD_WIDTH, UHD_HEIGHT };
+        }
+        if (TextUtils.isEmpty(resolution)) {
+            return null;
+        }
+        int x = resolution.indexOf('x');
+        if (x <= 0) {
+            return null;
+        }
+        try {
+            return new int[] { Integer.parseInt(resolution.substring(0, x)),
+                    Integer.parseInt(resolution.substring(x + 1)) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean sameAspect(int[] a, int[] b) {
+        float aspectA = (float) a[0] / a[1];
+        float aspectB = (float) b[0] / b[1];
+        return Math.abs(aspectA - aspectB) / aspectB < ASPECT_TOLERANCE;
+    }
+
+    /**
+     * .../th?id=OHR.Xxx_ZH-CN123_1920x1080.jpg -> 1920x1080
+     */
+    @Nullable
+    static String getResolution(String url) {
+        if (TextUtils.isEmpty(url)) {
+            return null;
+        }
+        int end = url.lastIndexOf(".jpg");
+        int start = url.lastIndexOf('_');
+        if (end < 0 || start < 0 || start >= end) {
+            return null;
+        }
+        return url.substring(start + 1, end);
+    }
+
+    /**
+     * Fetch the set wallpaper, and the save wallpaper when auto save is on.
+     */
+    @NonNull
+    public static Result fetch(Context context, Wallpaper image, boolean save) throws Exception {
+        String setUrl = image.getImageUrl();
+        if (TextUtils.isEmpty(setUrl)) {
+            // straight from the api, the resolution url is not set yet
+            setUrl = BingWallpaperUtils.getResolutionImageUrl(context, image.getBaseUrl());
+        }
+        String setResolution = getResolution(setUrl);
+        String saveResolution = save ? Settings.getSaveResolution(context) : null;
+        Result result = new Result();
+        if (setResolution == null) {
+            result.set = fetchSource(context, setUrl, result);
+            if (saveResolution != null) {
+                result.saveUrl = BingWallpaperUtils.getImageUrl(context, saveResolution, image.getBaseUrl());
+                result.save = fetchSource(context, result.saveUrl, result);
+            }
+            log(context, setUrl, result);
+            return result;
+        }
+        Plan plan = plan(setResolution, saveResolution);
+        Map<String, String> urls = new HashMap<>();
+        urls.put(setResolution, setUrl);
+        if (saveResolution != null) {
+            result.saveUrl = saveResolution.equals(setResolution) ? setUrl
+                    : BingWallpaperUtils.getImageUrl(context, saveResolution, image.getBaseUrl());
+            urls.put(saveResolution, result.saveUrl);
+        }
+
+        Map<String, File> sources = new HashMap<>();
+        if (plan.sources.size() == 1) {
+            String source = plan.sources.get(0);
+            sources.put(source, fetchSource(context, urls.get(source), result));
+        } else {
+            List<File> files = Observable.fromIterable(plan.sources)
+                    .concatMapEager(resolution -> Observable.fromCallable(
+                            () -> fetchSource(context, urls.get(resolution), result))
+                            .subscribeOn(Schedulers.io()))
+                    .toList()
+                    .blockingGet();
+            for (int i = 0; i < plan.sources.size(); i++) {
+                sources.put(plan.sources.get(i), files.get(i));
+            }
+        }
+
+        result.set = rendition(context, plan, setResolution, urls.get(setResolution), sources, result);
+        if (saveResolution != null) {
+            result.save = rendition(context, plan, saveResolution, result.saveUrl, sources, result);
+        }
+        log(context, setUrl, result);
+        return result;
+    }
+
+    /**
+     * Fetch the save wallpaper alone, for an auto save without a set
+     */
+    @NonNull
+    public static Result fetchSave(Context context, Wallpaper image) throws Exception {
+        Result result = new Result();
+        result.saveUrl = BingWallpaperUtils.getImageUrl(context, Settings.getSaveResolution(context),
+                image.getBaseUrl());
+        result.save = fetchSource(context, result.saveUrl, result);
+        log(context, result.saveUrl, result);
+        return result;
+    }
+
+    /**
+     * Fetch the renditions and build the blur into the cache ahead of the set, so the set itself is local.
+     */
+    public static void prefetch(Context context, Wallpaper image, Config config) throws Exception {
+        Result result = fetch(context, image, Settings.isAutoSave(context));
+        WallpaperUtils.getImageStackBlurFile(context, config.getStackBlur(), result.set, image.getImageUrl());
+    }
+
+    /**
+     * A derived (set) rendition stays in the derivative cache, the wallpaper store only keeps what Bing served
+     */
+    private static File rendition(Context context, Plan plan, String resolution, String url,
+            Map<String, File> sources, Result result) {
+        File source = sources.get(plan.getSource(resolution));
+        if (!plan.isDerived(resolution)) {
+            return source;
+        }
+        File stored = WallpaperFileStore.get(context, url);
+        if (stored != null) {
+            return stored;
+        }
+        String key = WallpaperIdentity.getKey(url);
+        File cached = DerivativeEncoder.get(key, DerivativeEncoder.KIND_RENDITION);
+        if (cached != null && cached.exists()) {
+            DiskCacheQuota.hit(DiskCacheQuota.AREA_DERIVATIVE);
+            return cached;
+        }
+        DiskCacheQuota.miss(DiskCacheQuota.AREA_DERIVATIVE);
+        int[] size = parse(resolution);
+        try {
+            File file = downscale(source, key, size[0], size[1]);
+            if (file != source) {
+                result.derived++;
+            }
+            return file;
+        } catch (IOException e) {
+            L.alog().w(TAG, e, "downscale failure, use source : %s", resolution);
+            return source;
+        }
+    }
+
+    private static File fetchSource(Context context, String url, Result result) throws Exception {
+        File file = WallpaperUtils.getCacheImageFile(context, url);
+        if (file != null) {
+            return file;
+        }
+        file = WallpaperUtils.downloadImageFile(context, url);
+        synchronized (result) {
+            result.fetchedBytes += file.length();
+        }
+        return file;
+    }
+
+    private static File downscale(File source, String key, int width, int height) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(source.getAbsolutePath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("decode bounds failure");
+        }
+        if (options.outWidth <= width) {
+            return source;
+        }
+        Bitmap bitmap = BitmapDecoder.decode(source, width, height, BitmapDecoder.USE_PROCESS);
+        if (bitmap == null) {
+            throw new IOException("decode failure");
+        }
+        Bitmap scaled = bitmap;
+        if (bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+            if (scaled != bitmap) {
+                bitmap.recycle();
+            }
+        }
+        File file = DerivativeEncoder.put(key, DerivativeEncoder.KIND_RENDITION, scaled);
+        scaled.recycle();
+        if (file == null) {
+            throw new IOException("rendition cache failure");
+        }
+        return file;
+    }
+
+    private static void log(Context context, String url, Result result) {
+        L.alog().i(TAG, "renditions of %s fetched %d bytes, derived %d", url, result.fetchedBytes,
+                result.derived);
+        if (Settings.isEnableLogProvider(context)) {
+            LogDebugFileUtils.get().i(TAG, "Renditions of %s fetched %d bytes, derived %d", url,
+                    result.fetchedBytes, result.derived);
+        }
+    }
+}
@@ -4,12 +4,9 @@ import android.app.ProgressDialog;
 import android.app.WallpaperManager;
 import android.content.Context;
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
@@ -29,18 +26,16 @@ import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.target.CustomViewTarget;
 import com.bumptech.glide.request.target.Target;
 import com.bumptech.glide.request.transition.Transition;
-import com.commit451.nativestackblur.NativeStackBlur;
-import com.github.liaoheng.common.util.BitmapUtils;
 import com.github.liaoheng.common.util.Callback;
-import com.github.liaoheng.common.util.DisplayUtils;
 import com.github.liaoheng.common.util.FileUtils;
 import com.github.liaoheng.common.util.L;
 import com.github.liaoheng.common.util.UIUtils;
 import com.github.liaoheng.common.util.Utils;
-import com.google.common.io.Files;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -83,16 +78,14 @@ public class WallpaperUtils {
         if (!Settings.isAutoSave(context)) {
             return;
         }
-        String imageUrl = BingWallpaperUtils.getImageUrl(context, Settings.getSaveResolution(context),
-                image.getBaseUrl());
-        Utils.addSubscribe(Observable.just(imageUrl)
+        Utils.addSubscribe(Observable.just(image)
                         .subscribeOn(Schedulers.io())
-                        .retryWhen(new RetryWithDelay(3, 10))
-                        .map(url -> WallpaperUtils.getImageFile(context, url)),
-                new Callback.EmptyCallback<File>() {
+                        .map(wallpaper -> WallpaperRenditionPlanner.fetchSave(context, wallpaper))
+                        .retryWhen(RetryPolicy.create(2, 10, TimeUnit.SECONDS)),
+                new Callback.EmptyCallback<WallpaperRenditionPlanner.Result>() {
                     @Override
-                    public void onSuccess(File file) {
-                        saveWallpaper(context, tag, imageUrl, file);
+                    public void onSuccess(WallpaperRenditionPlanner.Result result) {
+                        autoSaveWallpaper(context, tag, result);
                     }
 
                     @Override
@@ -105,33 +98,18 @@ public class WallpaperUtils {
                 });
     }
 
-    public static void autoSaveWallpaper(Context context, String tag, Wallpaper image, File wallpaper) {
-        if (!Settings.isAutoSave(context)) {
+    /**
+     * Save the rendition fetched by {@link WallpaperRenditionPlanner}
+     */
+    public static void autoSaveWallpaper(Context context, String tag, WallpaperRenditionPlanner.Result result) {
+        if (result.save == null) {
             return;
         }
-        File saveFile = new File(wallpaper.toURI());
-        try {
-            String saveResolution = Settings.getSaveResolution(context);
-            String resolution = Settings.getResolution(context);
-            String saveImageUrl = image.getImageUrl();
-            if (!saveResolution.equals(resolution)) {
-                saveImageUrl = BingWallpaperUtils.getImageUrl(context, saveResolution,
-                        image.getBaseUrl());
-                saveFile = getImageFile(context, saveImageUrl);
-            }
-            saveWallpaper(context, tag, saveImageUrl, saveFile);
-            if (Settings.isEnableLogProvider(context)) {
-                LogDebugFileUtils.get().d(tag, "auto save wallpaper url: %s", saveImageUrl);
-            }
-        } catch (Throwable e) {
-            L.alog().e(tag, e, "auto download wallpaper failure");
-            if (Settings.isEnableLogProvider(context)) {
-                LogDebugFileUtils.get().e(tag, e, "Auto download wallpaper failure");
-            }
-        }
+        saveWallpaper(context, tag, result.saveUrl, result.save);
     }
 
     private static void saveWallpaper(Context context, String tag, String imageUrl, File file) {
+        WallpaperFileStore.acquire(file);
         try {
             saveToFile(context, imageUrl, file);
             L.alog().i(tag, "auto download wallpaper url: %s", imageUrl);
@@ -142,6 +120,8 @@ public class WallpaperUtils {
             if (Settings.isEnableLogProvider(context)) {
                 LogDebugFileUtils.get().e(tag, e, "Auto download wallpaper save failure");
             }
+        } finally {
+            WallpaperFileStore.release(file);
         }
     }
 
@@ -149,51 +129,79 @@ public class WallpaperUtils {
         return FileUtils.saveFileToPictureCompat(context, BingWallpaperUtils.getWallpaperName(url), from);
     }
 
-    @SuppressWarnings("UnstableApiUsage")
-    public static File getLocalWallpaperFile(Context context, File file) {
+    public static File getLocalWallpaperFile(Context context, String url, File file) {
         try {
-            File wallpaper = FileUtils.createFile(FileUtils.getProjectSpaceCacheDirectory(context, "wallpaper"),
-                    "wallpaper.w");
-            Files.copy(file, wallpaper);
-            return wallpaper;
+            return WallpaperFileStore.put(context, url, file);
         } catch (Exception e) {
+            L.alog().w("WallpaperUtils", e, "store wallpaper file");
             return file;
         }
     }
 
     public static File getImageFile(Context context, String url) throws Exception {
-        return getLocalWallpaperFile(context, GlideApp.with(context).downloadOnly().load(url).submit().get());
+        File file = getCacheImageFile(context, url);
+        if (file != null) {
+            return file;
+        }
+        return downloadImageFile(context, url);
+    }
+
+    /**
+     * Stored or glide cached file of the url, null when it has to be downloaded
+     */
+    @Nullable
+    public static File getCacheImageFile(Context context, String url) throws InterruptedException {
+        File file = WallpaperFileStore.get(context, url);
+        if (file != null) {
+            return file;
+        }
+        try {
+            file = GlideApp.with(context).downloadOnly().load(url).onlyRetrieveFromCache(true).submit().get();
+            if (!ImageValidator.isValid(file)) {
+                L.alog().w("WallpaperUtils", "evict invalid glide cache : %s", url);
+                // the glide disk cache drops an entry whose file is missing
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                DiskCacheQuota.miss(DiskCacheQuota.AREA_IMAGE);
+                return null;
+            }
+            DiskCacheQuota.hit(DiskCacheQuota.AREA_IMAGE);
+            return getLocalWallpaperFile(context, url, file);
+        } catch (ExecutionException ignored) {
+            DiskCacheQuota.miss(DiskCacheQuota.AREA_IMAGE);
+            return null;
+        }
+    }
+
+    public static File downloadImageFile(Context context, String url) throws IOException {
+        File download = NetUtils.get().downloadImage(context, url);
+        File file = getLocalWallpaperFile(context, url, download);
+        if (!file.equals(download)) {
+            //noinspection ResultOfMethodCallIgnored
+            download.delete();
+        }
+        return file;
     }
 
     public static File getImageFile(Context context, @NonNull Config config, @NonNull String url) throws Exception {
-        return getImageStackBlurFile(config.getStackBlur(), getImageFile(context, url), url);
+        return getImageStackBlurFile(context, config.getStackBlur(), getImageFile(context, url), url);
     }
 
-    public static File getImageStackBlurFile(int stackBlur, File wallpaper, @NonNull String url) {
-        if (stackBlur > 0) {
-            String key = BingWallpaperUtils.createKey(url + "_blur_" + stackBlur);
-            File stackBlurFile = CacheUtils.get().get(key);
-            if (stackBlurFile == null) {
-                Bitmap bitmap = BitmapFactory.decodeFile(wallpaper.getAbsolutePath());
-                if (bitmap == null) {
-                    return wallpaper;
-                }
-                bitmap = transformStackBlur(bitmap, stackBlur);
-                stackBlurFile = CacheUtils.get().put(key, BitmapUtils.bitmapToStream(bitmap,
-                        Bitmap.CompressFormat.JPEG));
-                bitmap.recycle();
-            }
-            if (stackBlurFile != null && stackBlurFile.exists()) {
-                return stackBlurFile;
-            }
+    /**
+     * Blurred at the size the system wallpaper wants, the radius is scaled with it so the blur looks the same
+     */
+    public static File getImageStackBlurFile(Context context, int stackBlur, File wallpaper, @NonNull String url) {
+        if (stackBlur <= 0) {
+            return wallpaper;
         }
-        return wallpaper;
+        return WallpaperPipeline.with(context, wallpaper, url).wallpaperSize().blur(stackBlur).get();
     }
 
-    public static WallpaperImage getImageStackBlurFile(@NonNull Config config, File wallpaper, @NonNull String url) {
+    public static WallpaperImage getImageStackBlurFile(Context context, @NonNull Config config, File wallpaper,
+            @NonNull String url) {
         WallpaperImage pair = new WallpaperImage(url, new File(wallpaper.toURI()), new File(wallpaper.toURI()));
         if (config.getStackBlur() > 0) {
-            File blurFile = WallpaperUtils.getImageStackBlurFile(config.getStackBlur(), wallpaper, url);
+            File blurFile = WallpaperUtils.getImageStackBlurFile(context, config.getStackBlur(), wallpaper, url);
             if (config.getStackBlurMode() == Constants.EXTRA_SET_WALLPAPER_MODE_BOTH) {
                 pair.setHome(blurFile);
                 pair.setLock(blurFile);
@@ -207,33 +215,41 @@ public class WallpaperUtils {
     }
 
     public static File getImageWaterMarkFile(@NonNull Context context, File wallpaper, String str, String url) {
-        String key = BingWallpaperUtils.createKey(url + "_mark_" + str);
-        File mark = CacheUtils.get().get(key);
-        if (mark == null) {
-            Bitmap bitmap = waterMark(context, BitmapFactory.decodeFile(wallpaper.getAbsolutePath()), str);
-            mark = CacheUtils.get().put(key, BitmapUtils.bitmapToStream(bitmap,
-                    Bitmap.CompressFormat.JPEG));
-            bitmap.recycle();
-        }
-        return mark;
+        return WallpaperPipeline.with(context, wallpaper, url).watermark(str).get();
     }
 
-    public static Bitmap transformStackBlur(@NonNull Bitmap bitmap, int stackBlur) {
-        if (stackBlur <= 0) {
-            return bitmap;
+    /**
+     * The blur of the config and the watermark in one decode, the blur is cached on the way for the set wallpaper
+     */
+    public static File getShareImageFile(@NonNull Context context, @NonNull Config config, @NonNull String url,
+            String title) throws Exception {
+        File wallpaper = getImageFile(context, url);
+        WallpaperFileStore.acquire(wallpaper);
+        try {
+            WallpaperPipeline pipeline = WallpaperPipeline.with(context, wallpaper, url);
+            if (config.getStackBlur() > 0) {
+                pipeline.wallpaperSize().blur(config.getStackBlur()).cache();
+            }
+            return pipeline.watermark(title).get();
+        } finally {
+            WallpaperFileStore.release(wallpaper);
         }
-        return toStackBlur2(bitmap, stackBlur);
     }
 
-    @SuppressWarnings("UnstableApiUsage")
+    /**
+     * The share target reads the file at its own pace, it stays acquired until the next share
+     */
     public static File getShareFile(Context context, File file) {
+        WallpaperFileStore.acquire(file);
         try {
-            File share = FileUtils.createFile(FileUtils.getProjectSpaceCacheDirectory(context, "share"),
-                    "share.jpg");
-            Files.copy(file, share);
+            File share = WallpaperFileStore.putShare(context, file);
+            WallpaperFileStore.setShared(share);
             return share;
         } catch (Exception e) {
+            WallpaperFileStore.setShared(file);
             return file;
+        } finally {
+            WallpaperFileStore.release(file);
         }
     }
 
@@ -242,15 +258,14 @@ public class WallpaperUtils {
         ProgressDialog dialog = UIUtils.showProgressDialog(context, context.getString(R.string.share) + "...");
         Observable<File> fileObservable = Observable.just("")
                 .subscribeOn(Schedulers.io())
-                .map(s -> getImageFile(context, config, url))
-                .flatMap(file -> Observable.just(getImageWaterMarkFile(context, file, title, url)))
+                .map(s -> getShareImageFile(context, config, url, title))
                 .map(file -> getShareFile(context, file));
         Utils.addSubscribe(fileObservable, new Callback.EmptyCallback<File>() {
             @Override
             public void onSuccess(File file) {
                 UIUtils.dismissDialog(dialog);
                 Intent share = new ShareCompat.IntentBuilder(context)
-                        .setType("image/jpeg")
+                        .setType(DerivativeEncoder.getMimeType(file))
                         .setText(title)
                         .setStream(BingWallpaperUtils.getUriForFile(context, file))
                         .getIntent();
@@ -314,44 +329,6 @@ public class WallpaperUtils {
         });
     }
 
-    //https://github.com/halibobo/WaterMark
-    public static Bitmap waterMark(Context context, Bitmap bitmap, String str) {
-        int destWidth = bitmap.getWidth();
-        int destHeight = bitmap.getHeight();
-        Bitmap icon = Bitmap.createBitmap(destWidth, destHeight, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(icon);
-
-        Paint photoPaint = new Paint();
-        photoPaint.setDither(true);
-        photoPaint.setFilterBitmap(true);
-
-        Rect src = new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
-        Rect dst = new Rect(0, 0, destWidth, destHeight);
-        canvas.drawBitmap(bitmap, src, dst, photoPaint);
-
-        Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.DEV_KERN_TEXT_FLAG);
-        textPaint.setTextSize(DisplayUtils.dp2px(context, 9));
-        textPaint.setTextAlign(Paint.Align.LEFT);
-        textPaint.setTypeface(Typeface.DEFAULT);
-        textPaint.setAntiAlias(true);
-        textPaint.setStrokeWidth(1);
-        textPaint.setAlpha(120);
-        textPaint.setColor(Color.WHITE);
-
-        Rect bounds = new Rect();
-        textPaint.getTextBounds(str, 0, str.length(), bounds);
-
-        canvas.drawText(str, destWidth - bounds.width() - 20, destHeight - bounds.height() / 2F - 5, textPaint);
-        canvas.save();
-        canvas.restore();
-        return icon;
-    }
-
-    @NonNull
-    static Bitmap toStackBlur2(Bitmap original, int radius) {
-        return NativeStackBlur.process(original, radius);
-    }
-
     public static void drawSurfaceHolder(SurfaceHolder holder, Consumer<Canvas> callback) {
         if (!holder.getSurface().isValid()) {
             return;
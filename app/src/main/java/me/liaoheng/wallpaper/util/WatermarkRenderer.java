@@ -0,0 +1,69 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+
+import com.github.liaoheng.common.util.DisplayUtils;
+
+/**
+ * 水印直接绘制在可修改的图片上，不再创建第二张全尺寸图片，文字尺寸按文字与字号缓存
+ *
+ * @author liaoheng
+ * @date 2026-10-18 22:40
+ */
+public class WatermarkRenderer {
+    private static final int MARGIN_RIGHT = 20;
+    private static final int MARGIN_BOTTOM = 5;
+
+    /**
+     * "text@size" -> measured bounds
+     */
+    private static final LruCache<String, Rect> BOUNDS = new LruCache<>(32);
+
+    @NonNull
+    static Paint createPaint(Context context) {
+        Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.DEV_KERN_TEXT_FLAG);
+        textPaint.setTextSize(DisplayUtils.dp2px(context, 9));
+        textPaint.setTextAlign(Paint.Align.LEFT);
+        textPaint.setTypeface(Typeface.DEFAULT);
+        textPaint.setAntiAlias(true);
+        textPaint.setStrokeWidth(1);
+        textPaint.setAlpha(120);
+        textPaint.setColor(Color.WHITE);
+        return textPaint;
+    }
+
+    @NonNull
+    static Rect getBounds(Paint paint, String str) {
+        String key = str + "@" + paint.getTextSize();
+        Rect bounds = BOUNDS.get(key);
+        if (bounds == null) {
+            bounds = new Rect();
+            paint.getTextBounds(str, 0, str.length(), bounds);
+            BOUNDS.put(key, bounds);
+        }
+        return bounds;
+    }
+
+    /**
+     * Draw the text at the bottom right corner of a mutable bitmap
+     */
+    public static void draw(Context context, @NonNull Bitmap bitmap, String str) {
+        if (!bitmap.isMutable()) {
+            throw new IllegalArgumentException("bitmap is immutable");
+        }
+        Paint paint = createPaint(context);
+        Rect bounds = getBounds(paint, str);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawText(str, bitmap.getWidth() - bounds.width() - MARGIN_RIGHT,
+                bitmap.getHeight() - bounds.height() / 2F - MARGIN_BOTTOM, paint);
+    }
+}
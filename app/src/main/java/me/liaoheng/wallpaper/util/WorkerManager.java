@@ -1,6 +1,7 @@
 package me.liaoheng.wallpaper.util;
 
 import android.content.Context;
+import android.os.Build;
 import android.util.Log;
 
 import androidx.work.Configuration;
@@ -24,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 
 import me.liaoheng.wallpaper.model.Config;
 import me.liaoheng.wallpaper.model.Wallpaper;
+import me.liaoheng.wallpaper.service.BingWallpaperPrefetchWorker;
 import me.liaoheng.wallpaper.service.BingWallpaperWorker;
 
 /**
@@ -32,6 +34,9 @@ import me.liaoheng.wallpaper.service.BingWallpaperWorker;
  */
 public class WorkerManager {
     private static final String WORKER_TAG = "bing_wallpaper_worker_" + 0x484;
+    private static final String PREFETCH_IDLE_TAG = "bing_wallpaper_prefetch_idle";
+    private static final String PREFETCH_UNMETERED_TAG = "bing_wallpaper_prefetch_unmetered";
+    private static final long PREFETCH_INTERVAL = TimeUnit.HOURS.toMillis(3);
 
     public static void disabled(Context context) {
         WorkManager.getInstance(context).cancelUniqueWork(WORKER_TAG);
@@ -60,6 +65,54 @@ public class WorkerManager {
         return false;
     }
 
+    /**
+     * Prefetch while idle and charging, or on an unmetered network, work constraints can not be OR'ed so
+     * there is one work for each, the worker skips a wallpaper that is already prefetched or set.
+     */
+    public static boolean enabledPrefetch(Context context) {
+        try {
+            long interval = PREFETCH_INTERVAL;
+            if (Settings.getJobType(context) == Settings.WORKER) {
+                interval = Math.min(interval,
+                        TimeUnit.HOURS.toMillis(Settings.getAutomaticUpdateInterval(context)) / 2);
+            }
+            interval = Math.max(interval, PeriodicWorkRequest.MIN_PERIODIC_INTERVAL_MILLIS);
+
+            Constraints.Builder idle = new Constraints.Builder()
+                    .setRequiresCharging(true)
+                    .setRequiredNetworkType(
+                            Settings.getOnlyWifi(context) ? NetworkType.UNMETERED : NetworkType.CONNECTED);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                idle.setRequiresDeviceIdle(true);
+            }
+            Constraints unmetered = new Constraints.Builder()
+                    .setRequiredNetworkType(NetworkType.UNMETERED)
+                    .setRequiresBatteryNotLow(true)
+                    .build();
+
+            WorkManager manager = WorkManager.getInstance(context);
+            manager.enqueueUniquePeriodicWork(PREFETCH_IDLE_TAG, ExistingPeriodicWorkPolicy.UPDATE,
+                    new PeriodicWorkRequest.Builder(BingWallpaperPrefetchWorker.class, interval,
+                            TimeUnit.MILLISECONDS).addTag(PREFETCH_IDLE_TAG)
+                            .setConstraints(idle.build())
+                            .build());
+            manager.enqueueUniquePeriodicWork(PREFETCH_UNMETERED_TAG, ExistingPeriodicWorkPolicy.UPDATE,
+                    new PeriodicWorkRequest.Builder(BingWallpaperPrefetchWorker.class, interval,
+                            TimeUnit.MILLISECONDS).addTag(PREFETCH_UNMETERED_TAG)
+                            .setConstraints(unmetered)
+                            .build());
+            return true;
+        } catch (Throwable e) {
+            L.alog().w("WorkerManager", e, "enable prefetch work error");
+        }
+        return false;
+    }
+
+    public static void disabledPrefetch(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(PREFETCH_IDLE_TAG);
+        WorkManager.getInstance(context).cancelUniqueWork(PREFETCH_UNMETERED_TAG);
+    }
+
     public static void start(Context context, Wallpaper wallpaper, Config config) {
         OneTimeWorkRequest.Builder builder = new OneTimeWorkRequest.Builder(BingWallpaperWorker.class)
                 .addTag(WORKER_TAG);
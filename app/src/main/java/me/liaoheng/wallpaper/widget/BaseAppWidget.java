@@ -135,10 +135,6 @@ public abstract class BaseAppWidget extends AppWidgetProvider {
     }
 
     protected void getBingWallpaper(final Context context) {
-        if (!BingWallpaperUtils.isConnected(context)) {
-            setText(context, null);
-            return;
-        }
         Utils.addSubscribe(BingWallpaperNetworkClient.getBingWallpaper(context),
                 new Callback.EmptyCallback<Wallpaper>() {
                     @Override
@@ -0,0 +1,95 @@
+package me.liaoheng.wallpaper.data;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+import me.liaoheng.wallpaper.model.Wallpaper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 10:40
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class BingWallpaperCatalogTest extends BaseTest {
+
+    @Test
+    public void getDatesTest() {
+        List<String> dates = BingWallpaperCatalog.getDates("20240111", 0, 3);
+        assertEquals(3, dates.size());
+        assertEquals("20240111", dates.get(0));
+        assertEquals("20240109", dates.get(2));
+        assertEquals(BingWallpaperCatalog.MAX_DAYS - 8,
+                BingWallpaperCatalog.getDates("20240111", 8, 8).size());
+    }
+
+    @Test
+    public void completeCatalogTest() {
+        List<String> dates = BingWallpaperCatalog.getDates("20240111", 0, 8);
+        assertTrue(BingWallpaperCatalog.getMissingWindows(dates, new HashSet<>(dates), 0).isEmpty());
+    }
+
+    @Test
+    public void missingTopDaysTest() {
+        List<String> dates = BingWallpaperCatalog.getDates("20240111", 0, 8);
+        Set<String> have = new HashSet<>(dates.subList(2, 8));
+        List<int[]> windows = BingWallpaperCatalog.getMissingWindows(dates, have, 0);
+        assertEquals(1, windows.size());
+        assertArrayEquals(new int[] { 0, 2 }, windows.get(0));
+    }
+
+    @Test
+    public void missingWindowClampTest() {
+        List<String> dates = BingWallpaperCatalog.getDates("20240111", 8, 8);
+        List<int[]> windows = BingWallpaperCatalog.getMissingWindows(dates, new HashSet<>(), 8);
+        assertEquals(1, windows.size());
+        assertArrayEquals(new int[] { BingWallpaperCatalog.MAX_INDEX, BingWallpaperCatalog.MAX_COUNT },
+                windows.get(0));
+    }
+
+    @Test
+    public void topDateTest() {
+        LocalDate today = new LocalDate(2024, 1, 10);
+        assertEquals("20240111", BingWallpaperCatalog.getTopDate(today, null));
+        assertEquals("20240111", BingWallpaperCatalog.getTopDate(today, "20240105"));
+        // market ahead of the device
+        assertEquals("20240112", BingWallpaperCatalog.getTopDate(today, "20240112"));
+        assertEquals("20240112", BingWallpaperCatalog.getDates("20240112", 0, 1).get(0));
+    }
+
+    @Test
+    public void mergeTest() {
+        List<Wallpaper> stored = Arrays.asList(wallpaper("20240110"), wallpaper("20240109"));
+        List<Wallpaper> fetched = Arrays.asList(wallpaper("20240112"), wallpaper("20240111"), wallpaper("20240110"));
+        List<Wallpaper> merged = BingWallpaperCatalog.merge(stored, fetched, null, 3);
+        assertEquals(3, merged.size());
+        assertEquals("20240112", merged.get(0).getDateTime());
+        assertEquals("20240110", merged.get(2).getDateTime());
+
+        merged = BingWallpaperCatalog.merge(stored, fetched, "20240110", 8);
+        assertEquals(2, merged.size());
+        assertEquals("20240110", merged.get(0).getDateTime());
+
+        // catalog could not be read
+        assertEquals(2, BingWallpaperCatalog.merge(Collections.emptyList(), fetched, null, 2).size());
+    }
+
+    private Wallpaper wallpaper(String date) {
+        return new Wallpaper(date, "/th?id=OHR.Test_1920x1080.jpg", "/th?id=OHR.Test", date, "", "", "");
+    }
+}
@@ -0,0 +1,100 @@
+package me.liaoheng.wallpaper.model;
+
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * 反射解析与流式解析对比，fixtures: hpimagearchive_1/8/16.json
+ *
+ * @author liaoheng
+ * @date 2026-10-18 13:30
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class BingWallpaperParseBenchmarkTest extends BaseTest {
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 5000;
+
+    private final Gson reflective = new Gson();
+    private final Gson streaming = new GsonBuilder()
+            .registerTypeAdapterFactory(new BingWallpaperTypeAdapterFactory())
+            .create();
+
+    @Test
+    public void parse1() throws IOException {
+        benchmark("hpimagearchive_1.json", 1);
+    }
+
+    @Test
+    public void parse8() throws IOException {
+        benchmark("hpimagearchive_8.json", 8);
+    }
+
+    @Test
+    public void parse16() throws IOException {
+        benchmark("hpimagearchive_16.json", 16);
+    }
+
+    private void benchmark(String fixture, int count) throws IOException {
+        String json = read(fixture);
+        assertSame(reflective.fromJson(json, BingWallpaper.class), streaming.fromJson(json, BingWallpaper.class),
+                count);
+
+        long reflectiveTime = run(reflective, json);
+        long streamingTime = run(streaming, json);
+        log("%s reflective: %d ns/op, streaming: %d ns/op", fixture, reflectiveTime / ITERATIONS,
+                streamingTime / ITERATIONS);
+    }
+
+    private long run(Gson gson, String json) {
+        for (int i = 0; i < WARMUP; i++) {
+            gson.fromJson(json, BingWallpaper.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            gson.fromJson(json, BingWallpaper.class);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void assertSame(BingWallpaper expected, BingWallpaper actual, int count) {
+        assertEquals(count, expected.getImages().size());
+        assertEquals(count, actual.getImages().size());
+        assertNotNull(actual.getTooltips());
+        for (int i = 0; i < count; i++) {
+            Wallpaper e = expected.getImages().get(i).to(expected.getTooltips());
+            Wallpaper a = actual.getImages().get(i).to(actual.getTooltips());
+            assertEquals(e.getDateTime(), a.getDateTime());
+            assertEquals(e.getUrl(), a.getUrl());
+            assertEquals(e.getBaseUrl(), a.getBaseUrl());
+            assertEquals(e.getTitle(), a.getTitle());
+            assertEquals(e.getWebUrl(), a.getWebUrl());
+            assertEquals(e.getDesc(), a.getDesc());
+            assertEquals(e.getCopyrightInfo(), a.getCopyrightInfo());
+            assertNotNull(a.getBaseUrl());
+        }
+    }
+
+    private String read(String fixture) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(fixture)) {
+            assertNotNull(fixture, in);
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+}
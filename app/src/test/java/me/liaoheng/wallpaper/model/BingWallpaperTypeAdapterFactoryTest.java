@@ -0,0 +1,55 @@
+package me.liaoheng.wallpaper.model;
+
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-19 10:10
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class BingWallpaperTypeAdapterFactoryTest extends BaseTest {
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new BingWallpaperTypeAdapterFactory())
+            .create();
+
+    @Test
+    public void writeRoundTrip() throws IOException {
+        BingWallpaper wallpaper = gson.fromJson(read("hpimagearchive_8.json"), BingWallpaper.class);
+        BingWallpaper copy = gson.fromJson(gson.toJson(wallpaper), BingWallpaper.class);
+        assertEquals(wallpaper.getImages().size(), copy.getImages().size());
+        assertNotNull(copy.getTooltips());
+        for (int i = 0; i < wallpaper.getImages().size(); i++) {
+            Wallpaper e = wallpaper.getImages().get(i).to(wallpaper.getTooltips());
+            Wallpaper a = copy.getImages().get(i).to(copy.getTooltips());
+            assertEquals(e.getUrl(), a.getUrl());
+            assertEquals(e.getBaseUrl(), a.getBaseUrl());
+            assertEquals(e.getDateTime(), a.getDateTime());
+            assertEquals(e.getCopyrightInfo(), a.getCopyrightInfo());
+        }
+    }
+
+    private String read(String fixture) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(fixture)) {
+            assertNotNull(fixture, in);
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+}
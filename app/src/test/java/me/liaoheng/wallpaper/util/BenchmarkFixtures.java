@@ -0,0 +1,85 @@
+package me.liaoheng.wallpaper.util;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import org.junit.Assume;
+
+import java.util.Random;
+
+/**
+ * 基准测试共用的壁纸图片与开关
+ * <p>
+ * Benchmarks are skipped by default, run them with {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ *
+ * @author liaoheng
+ * @date 2026-10-19 11:30
+ */
+public class BenchmarkFixtures {
+
+    /**
+     * Skip the calling test unless benchmarks are enabled
+     */
+    public static void assumeBenchmark() {
+        Assume.assumeTrue("benchmark, run with -Pbenchmark", Boolean.getBoolean("benchmark"));
+    }
+
+    /**
+     * Gradient sky plus noise, like a photo
+     */
+    public static int[] pixels(int width, int height) {
+        Random random = new Random(width);
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(24);
+                int r = 40 + 120 * y / height + noise;
+                int g = 90 + 80 * x / width + noise;
+                int b = 200 - 100 * y / height + noise;
+                pixels[y * width + x] = Color.rgb(r, g, b);
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * {@link #pixels(int, int)} as a mutable bitmap
+     */
+    public static Bitmap wallpaper(int width, int height) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(pixels(width, height), 0, width, 0, 0, width, height);
+        return bitmap;
+    }
+
+    /**
+     * Black and white halves, a 1px checkerboard band and lines of text, the worst case for scaling
+     */
+    public static Bitmap highContrast(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean white;
+                if (y < height / 3) {
+                    white = x < width / 2;
+                } else if (y < height * 2 / 3) {
+                    white = ((x + y) & 1) == 0;
+                } else {
+                    white = true;
+                }
+                pixels[y * width + x] = white ? Color.WHITE : Color.BLACK;
+            }
+        }
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.BLACK);
+        paint.setTextSize(height / 30f);
+        Canvas canvas = new Canvas(bitmap);
+        for (float y = height * 2 / 3f + paint.getTextSize(); y < height; y += paint.getTextSize() * 1.2f) {
+            canvas.drawText("Bing Wallpaper 2026-10-18 The quick brown fox jumps over the lazy dog", 0, y, paint);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,41 @@
+package me.liaoheng.wallpaper.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 21:40
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class BitmapDecoderTest extends BaseTest {
+
+    @Test
+    public void scaleCoversTarget() {
+        // UHD on a 1080p surface
+        assertEquals(0.5f, BitmapDecoder.getScale(3840, 2160, 1920, 1080), 0.0001f);
+        // landscape source on a portrait screen, the height decides
+        assertEquals(1f, BitmapDecoder.getScale(3840, 2160, 1080, 2400), 0.0001f);
+        // never scaled up, a 0 target keeps the size
+        assertEquals(1f, BitmapDecoder.getScale(1920, 1080, 3840, 2160), 0.0001f);
+        assertEquals(1f, BitmapDecoder.getScale(1920, 1080, 0, 0), 0.0001f);
+    }
+
+    @Test
+    public void sampleSize() {
+        assertEquals(1, BitmapDecoder.getSampleSize(1f));
+        assertEquals(1, BitmapDecoder.getSampleSize(0.6f));
+        assertEquals(2, BitmapDecoder.getSampleSize(0.5f));
+        assertEquals(2, BitmapDecoder.getSampleSize(0.3f));
+        assertEquals(4, BitmapDecoder.getSampleSize(0.25f));
+        assertEquals(8, BitmapDecoder.getSampleSize(0.1f));
+    }
+}
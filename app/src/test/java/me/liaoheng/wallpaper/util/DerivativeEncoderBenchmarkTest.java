@@ -0,0 +1,105 @@
+package me.liaoheng.wallpaper.util;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.assumeBenchmark;
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.wallpaper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 衍生图片各编码格式的编码时间，解码时间与文件大小，1080p与UHD
+ * <p>
+ * Wallpapers are generated (gradient sky plus noise), the blur variant is a down and up scale of it.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 20:30
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class DerivativeEncoderBenchmarkTest extends BaseTest {
+    private static final int ITERATIONS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void encode1080() {
+        assumeBenchmark();
+        benchmark("1920x1080", 1920, 1080);
+    }
+
+    @Test
+    public void encodeUHD() {
+        assumeBenchmark();
+        benchmark("UHD", 3840, 2160);
+    }
+
+    @Test
+    public void formatOfEncoded() throws IOException {
+        Bitmap bitmap = wallpaper(64, 36);
+        for (DerivativeEncoder.Format format : DerivativeEncoder.Format.values()) {
+            File file = folder.newFile();
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(DerivativeEncoder.compress(bitmap, format));
+            }
+            assertEquals(format, DerivativeEncoder.Format.of(file));
+            assertTrue(ImageValidator.isValid(file));
+        }
+    }
+
+    private void benchmark(String name, int width, int height) {
+        Bitmap wallpaper = wallpaper(width, height);
+        Bitmap blur = blur(wallpaper);
+        for (DerivativeEncoder.Format format : DerivativeEncoder.Format.values()) {
+            run(name + " original", wallpaper, format);
+            run(name + " blur", blur, format);
+        }
+        wallpaper.recycle();
+        blur.recycle();
+    }
+
+    private void run(String name, Bitmap bitmap, DerivativeEncoder.Format format) {
+        byte[] bytes = DerivativeEncoder.compress(bitmap, format);
+        long encode = 0;
+        long decode = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            bytes = DerivativeEncoder.compress(bitmap, format);
+            encode += System.nanoTime() - start;
+            start = System.nanoTime();
+            Bitmap decoded = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+            decode += System.nanoTime() - start;
+            assertNotNull(decoded);
+            assertEquals(bitmap.getWidth(), decoded.getWidth());
+            decoded.recycle();
+        }
+        log("%s %s: encode %d ms, decode %d ms, %d KB", name, format, encode / ITERATIONS / 1000000,
+                decode / ITERATIONS / 1000000, bytes.length / 1024);
+    }
+
+    private Bitmap blur(Bitmap bitmap) {
+        Bitmap small = Bitmap.createScaledBitmap(bitmap, bitmap.getWidth() / 16, bitmap.getHeight() / 16, true);
+        Bitmap blur = Bitmap.createScaledBitmap(small, bitmap.getWidth(), bitmap.getHeight(), true);
+        small.recycle();
+        return blur;
+    }
+}
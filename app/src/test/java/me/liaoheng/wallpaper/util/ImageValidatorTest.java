@@ -0,0 +1,123 @@
+package me.liaoheng.wallpaper.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-19 11:00
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class ImageValidatorTest extends BaseTest {
+    static final byte[] JPEG = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I',
+            'F', 0, 1, (byte) 0xFF, (byte) 0xD9 };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        server = new MockWebServer();
+        client = new OkHttpClient.Builder().addInterceptor(new ImageValidator.ImageInterceptor()).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void completeJpeg() throws IOException {
+        assertTrue(ImageValidator.hasJpegEnd(write(0xFF, 0xD8, 1, 2, 3, 0xFF, 0xD9)));
+        assertTrue(ImageValidator.hasJpegEnd(write(0xFF, 0xD8, 1, 2, 3, 0xFF, 0xD9, 0, 0)));
+    }
+
+    @Test
+    public void truncatedJpeg() throws IOException {
+        assertFalse(ImageValidator.hasJpegEnd(write(0xFF, 0xD8, 1, 2, 3, 4)));
+        assertFalse(ImageValidator.hasJpegEnd(write(0xFF, 0xD8)));
+        assertFalse(ImageValidator.hasJpegEnd(new File(folder.getRoot(), "missing")));
+    }
+
+    @Test
+    public void notAnImage() throws IOException {
+        assertFalse(ImageValidator.isValid(write('<', 'h', 't', 'm', 'l', '>')));
+    }
+
+    @Test
+    public void interceptImage() throws IOException {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "image/jpeg").setBody(new Buffer().write(JPEG)));
+        server.start();
+        try (Response response = call("/th?id=OHR.Test_1920x1080.jpg&rf=LaDigue_1920x1080.jpg")) {
+            assertEquals(JPEG.length, response.body().bytes().length);
+        }
+    }
+
+    @Test
+    public void interceptCaptivePortal() throws IOException {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "text/html")
+                .setBody("<html><body>Sign in to the network</body></html>"));
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/octet-stream")
+                .setBody("<html><body>Sign in to the network</body></html>"));
+        server.start();
+        for (int i = 0; i < 2; i++) {
+            try {
+                call("/th?id=OHR.Test_1920x1080.jpg").close();
+                fail();
+            } catch (InvalidImageException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void interceptOtherRequests() throws IOException {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody("{}"));
+        server.start();
+        try (Response response = call("/HPImageArchive.aspx?format=js&idx=0&n=1")) {
+            assertEquals("{}", response.body().string());
+        }
+    }
+
+    private Response call(String path) throws IOException {
+        return client.newCall(new Request.Builder().url(server.url(path)).build()).execute();
+    }
+
+    private File write(int... bytes) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (int b : bytes) {
+                out.write(b);
+            }
+        }
+        return file;
+    }
+}
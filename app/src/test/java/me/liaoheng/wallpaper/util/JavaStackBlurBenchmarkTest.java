@@ -0,0 +1,66 @@
+package me.liaoheng.wallpaper.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.assumeBenchmark;
+
+/**
+ * Java模糊的线程数与半径对比，1080p与UHD的int[]缓冲
+ * <p>
+ * Warmup first so the JIT has compiled the line blur, then the average of the measured runs.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 22:30
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class JavaStackBlurBenchmarkTest extends BaseTest {
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+    private static final int[] RADII = { 5, 25, 60, 100 };
+
+    @Test
+    public void blur1080() {
+        assumeBenchmark();
+        benchmark("1920x1080", 1920, 1080);
+    }
+
+    @Test
+    public void blurUHD() {
+        assumeBenchmark();
+        benchmark("UHD", 3840, 2160);
+    }
+
+    private void benchmark(String name, int width, int height) {
+        int[] source = BenchmarkFixtures.pixels(width, height);
+        int[] pixels = new int[source.length];
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] { 1, 2, 4, processors }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            JavaStackBlur blur = new JavaStackBlur(pool);
+            for (int radius : RADII) {
+                for (int i = 0; i < WARMUP; i++) {
+                    System.arraycopy(source, 0, pixels, 0, source.length);
+                    blur.blur(pixels, width, height, radius);
+                }
+                long time = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    System.arraycopy(source, 0, pixels, 0, source.length);
+                    long start = System.nanoTime();
+                    blur.blur(pixels, width, height, radius);
+                    time += System.nanoTime() - start;
+                }
+                log("%s threads %d radius %d: %.1f ms/op", name, threads, radius, time / ITERATIONS / 1000000f);
+            }
+            pool.shutdown();
+        }
+    }
+}
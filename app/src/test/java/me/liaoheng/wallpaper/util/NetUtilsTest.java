@@ -0,0 +1,76 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 14:55
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class NetUtilsTest extends BaseTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        server = new MockWebServer();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void sharedEngineTest() throws IOException, InterruptedException {
+        Context context = RuntimeEnvironment.getApplication();
+        server.enqueue(new MockResponse().setBody("{\"images\":[]}"));
+        server.enqueue(new MockResponse().setHeader("Content-Type", "image/jpeg")
+                .setBody(new Buffer().write(ImageValidatorTest.JPEG)));
+        server.start();
+
+        OkHttpClient metadata = NetUtils.get().initOkHttpClientBuilder(context, 60, 30).build();
+        OkHttpClient image = NetUtils.get().initOkHttpClientBuilder(context, 120, 60).build();
+        assertSame(metadata.connectionPool(), image.connectionPool());
+        assertSame(metadata.dispatcher(), image.dispatcher());
+        assertEquals(60_000, metadata.readTimeoutMillis());
+        assertEquals(120_000, image.readTimeoutMillis());
+
+        try (Response response = metadata.newCall(new Request.Builder().url(server.url("/HPImageArchive.aspx"))
+                .build()).execute()) {
+            response.body().string();
+        }
+        try (Response response = image.newCall(new Request.Builder().url(server.url("/th?id=OHR.Test_1920x1080.jpg"))
+                .build()).execute()) {
+            assertEquals(ImageValidatorTest.JPEG.length, response.body().bytes().length);
+        }
+
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+        assertEquals(1, metadata.connectionPool().connectionCount());
+    }
+}
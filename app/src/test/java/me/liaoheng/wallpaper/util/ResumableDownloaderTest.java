@@ -0,0 +1,204 @@
+package me.liaoheng.wallpaper.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 17:20
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class ResumableDownloaderTest extends BaseTest {
+    private static final String ETAG = "\"uhd-1\"";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private final byte[] image = new byte[512 * 1024];
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        new Random(1).nextBytes(image);
+        server = new MockWebServer();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse full() {
+        return new MockResponse().setHeader("ETag", ETAG).setBody(new Buffer().write(image));
+    }
+
+    private MockResponse dropped() {
+        return full().setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+    }
+
+    private MockResponse range(RecordedRequest request) {
+        String range = request.getHeader("Range");
+        int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+        return new MockResponse().setResponseCode(206)
+                .setHeader("ETag", ETAG)
+                .setHeader("Content-Range", "bytes " + start + "-" + (image.length - 1) + "/" + image.length)
+                .setBody(new Buffer().write(Arrays.copyOfRange(image, start, image.length)));
+    }
+
+    private ResumableDownloader downloader() {
+        return new ResumableDownloader(new OkHttpClient());
+    }
+
+    @Test
+    public void resumeAfterDisconnectTest() throws Exception {
+        server.enqueue(dropped());
+        server.start();
+        File target = new File(folder.getRoot(), "uhd.jpg");
+
+        String url = server.url("/th?id=OHR.Test_UHD.jpg").toString();
+        try {
+            downloader().setMaxAttempts(1).download(url, target);
+            fail();
+        } catch (IOException ignored) {
+        }
+        long received = new File(target.getPath() + ".part").length();
+        assertTrue(received > 0 && received < image.length);
+        assertFalse(target.exists());
+
+        RecordedRequest first = server.takeRequest();
+        assertNull(first.getHeader("Range"));
+
+        // new instance, like a restarted process
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return range(request);
+            }
+        });
+        File file = downloader().download(url, target);
+
+        RecordedRequest second = server.takeRequest();
+        assertEquals("bytes=" + received + "-", second.getHeader("Range"));
+        assertEquals(ETAG, second.getHeader("If-Range"));
+        assertArrayEquals(image, Files.readAllBytes(file.toPath()));
+        assertFalse(new File(target.getPath() + ".part").exists());
+    }
+
+    @Test
+    public void resumeWithinOneCallTest() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getHeader("Range") == null) {
+                    return dropped();
+                }
+                return range(request);
+            }
+        });
+        server.start();
+        File target = new File(folder.getRoot(), "uhd.jpg");
+
+        File file = downloader().download(server.url("/th?id=OHR.Test_UHD.jpg").toString(), target);
+
+        assertEquals(2, server.getRequestCount());
+        assertArrayEquals(image, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void changedImageRestartsTest() throws Exception {
+        server.enqueue(dropped());
+        server.enqueue(full());
+        server.start();
+        File target = new File(folder.getRoot(), "uhd.jpg");
+
+        File file = downloader().download(server.url("/th?id=OHR.Test_UHD.jpg").toString(), target);
+
+        assertEquals(2, server.getRequestCount());
+        assertArrayEquals(image, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void captivePortalRejectedTest() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "text/html; charset=utf-8")
+                .setBody("<html><body>Sign in to the network</body></html>"));
+        server.enqueue(full().setHeader("Content-Type", "image/jpeg"));
+        server.start();
+        File target = new File(folder.getRoot(), "uhd.jpg");
+        String url = server.url("/th?id=OHR.Test_UHD.jpg").toString();
+
+        try {
+            downloader().setImageOnly(true).download(url, target);
+            fail();
+        } catch (InvalidImageException ignored) {
+        }
+        assertEquals(1, server.getRequestCount());
+        assertFalse(target.exists());
+        assertFalse(new File(target.getPath() + ".part").exists());
+
+        File file = downloader().setImageOnly(true).download(url, target);
+        assertArrayEquals(image, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void concurrentDownloadTest() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return full().throttleBody(64 * 1024, 20, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        File target = new File(folder.getRoot(), "uhd.jpg");
+        String url = server.url("/th?id=OHR.Test_UHD.jpg").toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<File> first = executor.submit(() -> downloader().download(url, target));
+        Future<File> second = executor.submit(() -> {
+            // the part file is locked while the first download writes it
+            Thread.sleep(50);
+            assertFalse(ResumableDownloader.deleteIdle(new File(target.getPath() + ".part")));
+            return downloader().download(url, target);
+        });
+        assertArrayEquals(image, Files.readAllBytes(first.get().toPath()));
+        assertArrayEquals(image, Files.readAllBytes(second.get().toPath()));
+        executor.shutdown();
+        // the second call waited and found the finished file
+        assertEquals(1, server.getRequestCount());
+        assertTrue(ResumableDownloader.deleteIdle(target));
+    }
+}
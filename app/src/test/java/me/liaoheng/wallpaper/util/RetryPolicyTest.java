@@ -0,0 +1,125 @@
+package me.liaoheng.wallpaper.util;
+
+import com.google.gson.JsonParseException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 14:30
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class RetryPolicyTest extends BaseTest {
+
+    private final TestScheduler scheduler = new TestScheduler();
+
+    private RetryPolicy.Builder policy() {
+        return new RetryPolicy.Builder().maxRetries(3)
+                .initialDelay(1, TimeUnit.SECONDS)
+                .jitter(0)
+                .scheduler(scheduler)
+                .budget(new RetryPolicy.Budget(100, TimeUnit.MINUTES.toMillis(1)));
+    }
+
+    private Observable<String> failing(AtomicInteger subscriptions, int failures, Throwable error) {
+        return Observable.defer(() -> {
+            if (subscriptions.incrementAndGet() <= failures) {
+                return Observable.error(error);
+            }
+            return Observable.just("ok");
+        });
+    }
+
+    @Test
+    public void exponentialBackoffTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        TestObserver<String> observer = failing(subscriptions, 2, new SocketTimeoutException())
+                .retryWhen(policy().build()).test();
+
+        assertEquals(1, subscriptions.get());
+        scheduler.advanceTimeBy(999, TimeUnit.MILLISECONDS);
+        assertEquals(1, subscriptions.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, subscriptions.get());
+        scheduler.advanceTimeBy(1999, TimeUnit.MILLISECONDS);
+        assertEquals(2, subscriptions.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(3, subscriptions.get());
+        observer.assertValue("ok");
+    }
+
+    @Test
+    public void notRetryableTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        failing(subscriptions, 1, new HttpStatusException(404)).retryWhen(policy().build()).test()
+                .assertError(HttpStatusException.class);
+        assertEquals(1, subscriptions.get());
+
+        subscriptions.set(0);
+        failing(subscriptions, 1, new JsonParseException("bad")).retryWhen(policy().build()).test()
+                .assertError(JsonParseException.class);
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    public void perSubscriptionBudgetTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Observable<String> observable = failing(subscriptions, Integer.MAX_VALUE, new HttpStatusException(503))
+                .retryWhen(policy().maxRetries(1).build());
+
+        TestObserver<String> first = observable.test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        first.assertError(HttpStatusException.class);
+        assertEquals(2, subscriptions.get());
+
+        TestObserver<String> second = observable.test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        second.assertError(HttpStatusException.class);
+        assertEquals(4, subscriptions.get());
+    }
+
+    @Test
+    public void appBudgetTest() {
+        RetryPolicy.Budget budget = new RetryPolicy.Budget(2, TimeUnit.MINUTES.toMillis(1));
+        AtomicInteger subscriptions = new AtomicInteger();
+        TestObserver<String> observer = failing(subscriptions, Integer.MAX_VALUE, new SocketTimeoutException())
+                .retryWhen(policy().maxRetries(10).budget(budget).build()).test();
+        scheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+        observer.assertError(SocketTimeoutException.class);
+        assertEquals(3, subscriptions.get());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        assertTrue(budget.tryAcquire(scheduler.now(TimeUnit.MILLISECONDS)));
+    }
+
+    @Test
+    public void classifyTest() {
+        assertTrue(RetryPolicy.isRetryable(new SocketTimeoutException()));
+        assertTrue(RetryPolicy.isRetryable(new HttpStatusException(500)));
+        assertTrue(RetryPolicy.isRetryable(new RuntimeException(new ConnectException())));
+        assertFalse(RetryPolicy.isRetryable(new HttpStatusException(403)));
+        assertFalse(RetryPolicy.isRetryable(new IOException("parse", new JsonParseException("bad"))));
+        assertFalse(RetryPolicy.isRetryable(new IllegalStateException()));
+        assertFalse(RetryPolicy.isRetryable(new InvalidImageException("html")));
+    }
+}
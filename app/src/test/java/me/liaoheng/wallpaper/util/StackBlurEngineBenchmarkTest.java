@@ -0,0 +1,145 @@
+package me.liaoheng.wallpaper.util;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.assumeBenchmark;
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.highContrast;
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.wallpaper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 模糊半径对应的时间，峰值内存与缩小模糊的误差，1080p与UHD
+ * <p>
+ * The native blur is not loaded in unit tests, {@link JavaStackBlur} gives the same output. The photo-like
+ * fixture hides aliasing, the high-contrast one (hard edges, text, 1px checkerboard) is the worst case the
+ * factor table is calibrated on.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 22:00
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class StackBlurEngineBenchmarkTest extends BaseTest {
+    private static final int[] RADII = { 4, 8, 16, 25, 40, 60, 100 };
+
+    private final StackBlurEngine engine = new StackBlurEngine(new JavaStackBlur());
+
+    @Test
+    public void factor() {
+        assertEquals(1, StackBlurEngine.getFactor(1));
+        assertEquals(1, StackBlurEngine.getFactor(23));
+        assertEquals(2, StackBlurEngine.getFactor(24));
+        assertEquals(4, StackBlurEngine.getFactor(48));
+        assertEquals(8, StackBlurEngine.getFactor(96));
+        assertEquals(8, StackBlurEngine.getFactor(100));
+    }
+
+    @Test
+    public void peakBytes() {
+        Bitmap bitmap = Bitmap.createBitmap(64, 32, Bitmap.Config.ARGB_8888);
+        assertEquals(2 * 64 * 32 * 4, StackBlurEngine.getPeakBytes(bitmap, 1));
+        assertEquals(2 * 64 * 32 * 4 + 32 * 16 * 4, StackBlurEngine.getPeakBytes(bitmap, 2));
+        assertEquals(2 * 64 * 32 * 4 + 8 * 4 * 4, StackBlurEngine.getPeakBytes(bitmap, 8));
+        assertTrue(StackBlurEngine.getPeakBytes(bitmap, 8) > 64 * 32 * 4 + 32 * 16 * 4 + 16 * 8 * 4);
+    }
+
+    /**
+     * The largest factor within {@link StackBlurEngine#MAX_MEAN_ERROR} for every radius, the table of
+     * {@link StackBlurEngine#getFactor(int)} must not go above it
+     */
+    @Test
+    public void calibrate() {
+        assumeBenchmark();
+        Bitmap[] fixtures = { wallpaper(1920, 1080), highContrast(1920, 1080) };
+        for (int radius : RADII) {
+            int max = 1;
+            for (int factor = 2; factor <= StackBlurEngine.MAX_FACTOR; factor *= 2) {
+                float error = 0;
+                for (Bitmap fixture : fixtures) {
+                    Bitmap full = engine.process(fixture, radius, 1);
+                    Bitmap fast = engine.process(fixture, radius, factor);
+                    error = Math.max(error, meanError(full, fast));
+                    full.recycle();
+                    fast.recycle();
+                }
+                log("radius %d factor %d: mean error %.2f", radius, factor, error);
+                if (error > StackBlurEngine.MAX_MEAN_ERROR) {
+                    break;
+                }
+                max = factor;
+            }
+            log("radius %d: max factor %d, table %d", radius, max, StackBlurEngine.getFactor(radius));
+            assertTrue("radius " + radius, StackBlurEngine.getFactor(radius) <= max);
+        }
+        for (Bitmap fixture : fixtures) {
+            fixture.recycle();
+        }
+    }
+
+    @Test
+    public void blur1080() {
+        assumeBenchmark();
+        benchmark("1920x1080", wallpaper(1920, 1080));
+        benchmark("1920x1080 high contrast", highContrast(1920, 1080));
+    }
+
+    @Test
+    public void blurUHD() {
+        assumeBenchmark();
+        benchmark("UHD", wallpaper(3840, 2160));
+        benchmark("UHD high contrast", highContrast(3840, 2160));
+    }
+
+    private void benchmark(String name, Bitmap wallpaper) {
+        for (int radius : RADII) {
+            long start = System.nanoTime();
+            Bitmap full = engine.process(wallpaper, radius, 1);
+            long fullTime = System.nanoTime() - start;
+            long fullPeak = StackBlurEngine.getPeakBytes(wallpaper, 1);
+
+            int factor = StackBlurEngine.getFactor(radius);
+            start = System.nanoTime();
+            Bitmap fast = engine.process(wallpaper, radius);
+            long fastTime = System.nanoTime() - start;
+            long fastPeak = StackBlurEngine.getPeakBytes(wallpaper, factor);
+
+            float error = meanError(full, fast);
+            log("%s radius %d: full %d ms %d KB, factor %d %d ms %d KB, mean error %.2f", name, radius,
+                    fullTime / 1000000, fullPeak / 1024, factor, fastTime / 1000000, fastPeak / 1024, error);
+            assertTrue(name + " radius " + radius + " error " + error, error <= StackBlurEngine.MAX_MEAN_ERROR);
+            full.recycle();
+            fast.recycle();
+        }
+        wallpaper.recycle();
+    }
+
+    private float meanError(Bitmap expected, Bitmap actual) {
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        assertEquals(width, actual.getWidth());
+        assertEquals(height, actual.getHeight());
+        int[] e = new int[width * height];
+        int[] a = new int[width * height];
+        expected.getPixels(e, 0, width, 0, 0, width, height);
+        actual.getPixels(a, 0, width, 0, 0, width, height);
+        long sum = 0;
+        for (int i = 0; i < e.length; i++) {
+            sum += Math.abs(Color.red(e[i]) - Color.red(a[i]));
+            sum += Math.abs(Color.green(e[i]) - Color.green(a[i]));
+            sum += Math.abs(Color.blue(e[i]) - Color.blue(a[i]));
+        }
+        return sum / (e.length * 3f);
+    }
+}
@@ -0,0 +1,36 @@
+package me.liaoheng.wallpaper.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 20:00
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class WallpaperIdentityTest extends BaseTest {
+
+    @Test
+    public void keyWithoutHash() {
+        assertEquals(WallpaperIdentity.getKey("https://www.bing.com/th?id=OHR.Name_ZH-CN123_1920x1080.jpg"),
+                WallpaperIdentity.getKey("https://global.bing.com/th?id=OHR.Name_ZH-CN123_1920x1080.jpg"));
+        assertEquals("/th?id=OHR.Name_ZH-CN123_1920x1080.jpg",
+                WallpaperIdentity.getKey("https://cn.bing.com/th?id=OHR.Name_ZH-CN123_1920x1080.jpg"));
+    }
+
+    @Test
+    public void keyOfResolution() {
+        assertFalse(WallpaperIdentity.getKey("https://www.bing.com/th?id=OHR.Name_ZH-CN123_1920x1080.jpg")
+                .equals(WallpaperIdentity.getKey("https://www.bing.com/th?id=OHR.Name_ZH-CN123_1080x1920.jpg")));
+        assertEquals("", WallpaperIdentity.getKey(null));
+    }
+}
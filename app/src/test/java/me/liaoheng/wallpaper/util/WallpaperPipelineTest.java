@@ -0,0 +1,91 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 23:20
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class WallpaperPipelineTest extends BaseTest {
+    private static final String URL = "https://www.bing.com/th?id=OHR.Test_ZH-CN0000000000_UHD.jpg";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Context context = RuntimeEnvironment.getApplication();
+
+    @Test
+    public void prefixKey() throws IOException {
+        File source = wallpaper(64, 36);
+        WallpaperPipeline blur = WallpaperPipeline.with(context, source, URL).downscale(32, 18).blur(25);
+        WallpaperPipeline share = WallpaperPipeline.with(context, source, URL).downscale(32, 18).blur(25).cache()
+                .watermark("title");
+        // the share reads the blur of the set wallpaper
+        assertEquals(blur.getKey(1), share.getKey(1));
+        assertTrue(share.getKey(2).startsWith(share.getKey(1) + "_"));
+        assertEquals(DerivativeEncoder.KIND_RENDITION, share.getKind(0));
+        assertEquals(DerivativeEncoder.KIND_BLUR, share.getKind(1));
+        assertEquals(DerivativeEncoder.KIND_MARK, share.getKind(2));
+
+        WallpaperPipeline dim = WallpaperPipeline.with(context, source, URL).blur(25).dim(100);
+        assertEquals(DerivativeEncoder.KIND_BLUR, dim.getKind(1));
+    }
+
+    @Test
+    public void crop() throws IOException {
+        File source = wallpaper(64, 36);
+        Bitmap bitmap = WallpaperPipeline.with(context, source, URL).crop(18, 32).render(source, 0, false);
+        assertNotNull(bitmap);
+        assertEquals(18, bitmap.getWidth());
+        assertEquals(32, bitmap.getHeight());
+    }
+
+    @Test
+    public void blurWatermarkDim() throws IOException {
+        File source = wallpaper(64, 36);
+        Bitmap bitmap = WallpaperPipeline.with(context, source, URL).downscale(32, 18).blur(8).watermark("title")
+                .dim(255).render(source, 0, false);
+        assertNotNull(bitmap);
+        assertEquals(32, bitmap.getWidth());
+        assertEquals(18, bitmap.getHeight());
+        assertTrue(bitmap.isMutable());
+        int pixel = bitmap.getPixel(0, 0);
+        assertEquals(0, Color.red(pixel));
+        assertEquals(0, Color.blue(pixel));
+    }
+
+    private File wallpaper(int width, int height) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.rgb(40, 90, 200));
+        File file = folder.newFile("wallpaper.jpg");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,76 @@
+package me.liaoheng.wallpaper.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author liaoheng
+ * @date 2026-10-18 17:45
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+public class WallpaperRenditionPlannerTest extends BaseTest {
+
+    @Test
+    public void planWithoutSave() {
+        WallpaperRenditionPlanner.Plan plan = WallpaperRenditionPlanner.plan("1920x1080", null);
+        assertEquals(1, plan.sources.size());
+        assertEquals("1920x1080", plan.sources.get(0));
+        assertFalse(plan.isDerived("1920x1080"));
+    }
+
+    @Test
+    public void planSameResolution() {
+        WallpaperRenditionPlanner.Plan plan = WallpaperRenditionPlanner.plan("1080x1920", "1080x1920");
+        assertEquals(1, plan.sources.size());
+        assertFalse(plan.isDerived("1080x1920"));
+    }
+
+    @Test
+    public void planDownscaleSet() {
+        WallpaperRenditionPlanner.Plan plan = WallpaperRenditionPlanner.plan("1366x768", "UHD");
+        assertEquals(1, plan.sources.size());
+        assertEquals("UHD", plan.sources.get(0));
+        assertTrue(plan.isDerived("1366x768"));
+        assertFalse(plan.isDerived("UHD"));
+    }
+
+    @Test
+    public void planNeverDerivesSave() {
+        WallpaperRenditionPlanner.Plan plan = WallpaperRenditionPlanner.plan("1280x768", "800x480");
+        assertEquals(2, plan.sources.size());
+        assertFalse(plan.isDerived("1280x768"));
+        assertFalse(plan.isDerived("800x480"));
+    }
+
+    @Test
+    public void planDifferentAspect() {
+        WallpaperRenditionPlanner.Plan plan = WallpaperRenditionPlanner.plan("1080x1920", "1920x1080");
+        assertEquals(2, plan.sources.size());
+        assertFalse(plan.isDerived("1080x1920"));
+        assertFalse(plan.isDerived("1920x1080"));
+
+        plan = WallpaperRenditionPlanner.plan("1920x1200", "1920x1080");
+        assertEquals(2, plan.sources.size());
+    }
+
+    @Test
+    public void getResolution() {
+        assertEquals("1920x1080", WallpaperRenditionPlanner.getResolution(
+                "https://www.bing.com/th?id=OHR.Test_ZH-CN1234567890_1920x1080.jpg"));
+        assertEquals("UHD", WallpaperRenditionPlanner.getResolution(
+                "https://www.bing.com/th?id=OHR.Test_ZH-CN1234567890_UHD.jpg"));
+        assertNull(WallpaperRenditionPlanner.getResolution("https://www.bing.com/"));
+        assertNull(WallpaperRenditionPlanner.parse("abc"));
+    }
+}
@@ -0,0 +1,101 @@
+package me.liaoheng.wallpaper.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import me.liaoheng.wallpaper.BaseTest;
+import me.liaoheng.wallpaper.TestApplication;
+
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.assumeBenchmark;
+import static me.liaoheng.wallpaper.util.BenchmarkFixtures.wallpaper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 水印绘制在副本上(原方式)与直接绘制的时间与峰值内存，1080p与UHD
+ * <p>
+ * Both go through the watermark operation of {@link WallpaperPipeline}, it copies an immutable bitmap.
+ *
+ * @author liaoheng
+ * @date 2026-10-18 22:50
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = TestApplication.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class WatermarkRendererBenchmarkTest extends BaseTest {
+    private static final int ITERATIONS = 5;
+    private static final String TEXT = "Bing Wallpaper 2026-10-18";
+
+    private final Context context = RuntimeEnvironment.getApplication();
+    private final WallpaperPipeline.Watermark mark = new WallpaperPipeline.Watermark(TEXT);
+
+    @Test
+    public void inPlace() {
+        Bitmap bitmap = Bitmap.createBitmap(64, 36, Bitmap.Config.ARGB_8888);
+        assertSame(bitmap, mark.apply(context, bitmap, 64));
+        Bitmap immutable = bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        Bitmap copy = mark.apply(context, immutable, 64);
+        assertNotSame(immutable, copy);
+        assertTrue(copy.isMutable());
+    }
+
+    @Test
+    public void boundsCached() {
+        Paint paint = WatermarkRenderer.createPaint(context);
+        assertSame(WatermarkRenderer.getBounds(paint, TEXT), WatermarkRenderer.getBounds(paint, TEXT));
+    }
+
+    @Test
+    public void mark1080() {
+        assumeBenchmark();
+        benchmark("1920x1080", 1920, 1080);
+    }
+
+    @Test
+    public void markUHD() {
+        assumeBenchmark();
+        benchmark("UHD", 3840, 2160);
+    }
+
+    private void benchmark(String name, int width, int height) {
+        long copyTime = 0;
+        long copyPeak = 0;
+        long inPlaceTime = 0;
+        long inPlacePeak = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Bitmap source = immutable(wallpaper(width, height));
+            long sourceBytes = source.getAllocationByteCount();
+            long start = System.nanoTime();
+            Bitmap result = mark.apply(context, source, width);
+            copyTime += System.nanoTime() - start;
+            copyPeak = sourceBytes + result.getAllocationByteCount();
+            result.recycle();
+
+            source = wallpaper(width, height);
+            start = System.nanoTime();
+            result = mark.apply(context, source, width);
+            inPlaceTime += System.nanoTime() - start;
+            inPlacePeak = result.getAllocationByteCount();
+            assertEquals(width, result.getWidth());
+            result.recycle();
+        }
+        log("%s copy: %d ms %d KB, in place: %d ms %d KB", name, copyTime / ITERATIONS / 1000000,
+                copyPeak / 1024, inPlaceTime / ITERATIONS / 1000000, inPlacePeak / 1024);
+    }
+
+    private Bitmap immutable(Bitmap bitmap) {
+        Bitmap copy = bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        bitmap.recycle();
+        return copy;
+    }
+}